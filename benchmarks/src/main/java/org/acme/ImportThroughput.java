@@ -0,0 +1,112 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Vazão da importação em massa: envia um único corpo NDJSON com {@code --linhas} alunos sintéticos, gerado enquanto
+ * é enviado, e mede linhas importadas por segundo contra a meta ({@code --meta}, padrão 50 mil linhas/s).
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.acme.ImportThroughput \
+ *     --url=http://localhost:8080/ --linhas=1000000 --meta=50000
+ * </pre>
+ */
+public class ImportThroughput {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadGenerator.options(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080/"));
+        long linhas = Long.parseLong(options.getOrDefault("linhas", "1000000"));
+        long meta = Long.parseLong(options.getOrDefault("meta", "50000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        // Emails novos a cada execução, para não esbarrar no índice único de uma execução anterior
+        String execucao = Long.toString(System.currentTimeMillis(), 36);
+        HttpRequest request = HttpRequest.newBuilder(url.resolve("alunos/import"))
+                .header("Content-Type", "application/x-ndjson")
+                .timeout(LoadGenerator.duration(options.getOrDefault("timeout", "30m")))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> alunos(linhas, execucao, new SyntheticData(seed))))
+                .build();
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST alunos/import respondeu " + response.statusCode() + ": "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        JsonNode result = objectMapper.readTree(response.body());
+        long importados = result.path("importados").asLong();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("linhas", linhas);
+        summary.put("recebidos", result.path("recebidos").asLong());
+        summary.put("importados", importados);
+        summary.put("rejeitados", result.path("rejeitados").asLong());
+        summary.put("segundos", Math.round(seconds * 100) / 100.0);
+        summary.put("linhasPorSegundo", Math.round(importados / seconds));
+        summary.put("meta", meta);
+        summary.put("atingiuMeta", importados / seconds >= meta);
+        System.out.println(objectMapper.writeValueAsString(summary));
+    }
+
+    /**
+     * Corpo NDJSON gerado sob demanda: a memória do cliente não cresce com a quantidade de linhas.
+     */
+    static InputStream alunos(long linhas, String execucao, SyntheticData data) {
+        return new InputStream() {
+
+            private long geradas;
+            private byte[] linha = new byte[0];
+            private int pos;
+
+            @Override
+            public int read() {
+                return fill() ? linha[pos++] & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+                int n = Math.min(len, linha.length - pos);
+                System.arraycopy(linha, pos, b, off, n);
+                pos += n;
+                return n;
+            }
+
+            private boolean fill() {
+                while (pos == linha.length) {
+                    if (geradas == linhas) {
+                        return false;
+                    }
+                    geradas++;
+                    boolean feminino = data.feminino();
+                    String nome = data.nome(feminino);
+                    linha = ("{\"nome\": \"" + nome + "\", \"email\": \"" + SyntheticData.email(nome, geradas, execucao + ".import.com")
+                            + "\", \"sexo\": \"" + (feminino ? "FEMININO" : "MASCULINO") + "\"}\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                    pos = 0;
+                }
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cliente HTTP compartilhado pelos clientes virtuais. Cada chamada é registrada no histograma do seu
+ * {@code label} (método e caminho com os ids trocados por {@code {id}}), em microssegundos.
+ */
+public class LoadClient {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    public LoadClient(URI baseUri, Duration timeout) {
+        this.baseUri = baseUri;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    static class Endpoint {
+        final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder failures = new LongAdder();
+        Histogram histogram;
+    }
+
+    public HttpResponse<byte[]> send(String label, String method, String path, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout);
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            record(label, start, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            record(label, start, 0);
+            throw e;
+        }
+    }
+
+    public JsonNode get(String label, String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(label, "GET", path, null);
+        return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+    }
+
+    public JsonNode json(HttpResponse<byte[]> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+
+    /**
+     * Ids de uma listagem com {@code fields}, ex.: {@code alunos?fields=nome}. Fora da medição.
+     */
+    public List<Long> ids(String path) throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode item : read(path)) {
+            ids.add(item.get("id").asLong());
+        }
+        return ids;
+    }
+
+    /**
+     * Lê um JSON durante a preparação do cenário, sem registrar a chamada.
+     */
+    public JsonNode read(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(
+                HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + path + " respondeu " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    /**
+     * Cria um registro durante a preparação do cenário, sem registrar a chamada.
+     */
+    public long create(String path, Object body) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(
+                HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200 && response.statusCode() != 201) {
+            throw new IOException("POST " + path + " respondeu " + response.statusCode() + ": "
+                    + new String(response.body()));
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    void startRecording() {
+        // Descarta o que foi medido no aquecimento
+        endpoints.values().forEach(endpoint -> {
+            endpoint.recorder.reset();
+            endpoint.statuses.clear();
+            endpoint.failures.reset();
+        });
+        recording = true;
+    }
+
+    Map<String, Endpoint> stopRecording() {
+        recording = false;
+        Map<String, Endpoint> result = new TreeMap<>(endpoints);
+        result.values().forEach(endpoint -> endpoint.histogram = endpoint.recorder.getIntervalHistogram());
+        return result;
+    }
+
+    private void record(String label, long start, int status) {
+        if (!recording) {
+            endpoints.computeIfAbsent(label, l -> new Endpoint());
+            return;
+        }
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_TRACKABLE_MICROS);
+        Endpoint endpoint = endpoints.computeIfAbsent(label, l -> new Endpoint());
+        endpoint.recorder.recordValue(micros);
+        if (status == 0) {
+            endpoint.failures.increment();
+        } else {
+            endpoint.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+}
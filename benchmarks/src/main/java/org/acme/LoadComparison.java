@@ -0,0 +1,72 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Compara relatórios do {@link LoadGenerator} lado a lado: vazão, p50 e p99 de cada endpoint em cada execução.
+ * Serve para os modos de execução, com o mesmo cenário rodado contra cada build, e para a busca com o índice de
+ * trigramas ligado e desligado:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.acme.LoadComparison worker.json virtual.json
+ * java -cp benchmarks/target/benchmarks.jar org.acme.LoadComparison indice.json like.json
+ * </pre>
+ */
+public class LoadComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Informe pelo menos dois relatórios do LoadGenerator");
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> names = new ArrayList<>();
+        List<JsonNode> reports = new ArrayList<>();
+        for (String arg : args) {
+            File file = new File(arg);
+            names.add(file.getName().replaceFirst("\\.json$", ""));
+            reports.add(objectMapper.readTree(file));
+        }
+
+        Set<String> endpoints = new LinkedHashSet<>();
+        for (JsonNode report : reports) {
+            for (Iterator<String> it = report.path("endpoints").fieldNames(); it.hasNext(); ) {
+                endpoints.add(it.next());
+            }
+        }
+
+        StringBuilder header = new StringBuilder(String.format("%-40s", "endpoint"));
+        for (String name : names) {
+            header.append(String.format(" | %-30s", name + " (req/s, p50, p99 ms)"));
+        }
+        System.out.println(header);
+        for (String endpoint : endpoints) {
+            System.out.println(line(endpoint, reports, report -> report.path("endpoints").path(endpoint)));
+        }
+        System.out.println(line("total", reports, report -> report.path("total")));
+    }
+
+    private static String line(String label, List<JsonNode> reports, Function<JsonNode, JsonNode> stats) {
+        StringBuilder line = new StringBuilder(String.format("%-40s", label));
+        for (JsonNode report : reports) {
+            JsonNode node = stats.apply(report);
+            if (node.isMissingNode()) {
+                line.append(String.format(" | %-30s", "-"));
+            } else {
+                line.append(String.format(" | %9.1f %9.2f %9.2f ", node.path("throughput").asDouble(),
+                        node.path("latencyMs").path("p50").asDouble(), node.path("latencyMs").path("p99").asDouble()));
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,195 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Gerador de carga para a aplicação em execução. Cada cliente virtual roda o cenário em laço fechado
+ * (a próxima requisição só sai depois da resposta), então a vazão medida é a que o servidor sustenta com
+ * aquela concorrência. O relatório JSON traz, por endpoint, contagem, códigos de status, vazão e percentis
+ * de latência, além do histograma HdrHistogram comprimido para comparar execuções com precisão.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.acme.LoadGenerator \
+ *     --url=http://localhost:8080/ --scenario=busca --clients=200 --warmup=10s --duration=60s --report=busca.json
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final double[] PERCENTIS = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080/"));
+        String scenarioName = options.getOrDefault("scenario", "busca");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "100"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration measure = duration(options.getOrDefault("duration", "60s"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String report = options.get("report");
+
+        LoadScenario scenario = LoadScenario.named(scenarioName);
+        LoadClient client = new LoadClient(url, duration(options.getOrDefault("timeout", "30s")));
+        scenario.setup(client);
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long deadline = System.nanoTime() + warmup.toNanos() + measure.toNanos();
+        Map<Class<?>, Long> falhas = new HashMap<>();
+
+        Map<String, LoadClient.Endpoint> endpoints;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> sessions = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                LoadScenario.Session session = scenario.session(client, seeds.split());
+                sessions.add(pool.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            session.step();
+                        } catch (IOException e) {
+                            synchronized (falhas) {
+                                falhas.merge(e.getClass(), 1L, Long::sum);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            Thread.sleep(warmup);
+            client.startRecording();
+            Thread.sleep(measure);
+            endpoints = client.stopRecording();
+
+            for (Future<?> session : sessions) {
+                session.get();
+            }
+        }
+
+        Map<String, Object> result = report(scenarioName, url, clients, warmup, measure, seed, endpoints, falhas);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (report != null) {
+            objectMapper.writeValue(new File(report), result);
+        }
+        System.out.println(objectMapper.writeValueAsString(summary(result)));
+    }
+
+    private static Map<String, Object> report(
+            String scenario, URI url, int clients, Duration warmup, Duration measure, long seed,
+            Map<String, LoadClient.Endpoint> endpoints, Map<Class<?>, Long> falhas
+    ) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scenario", scenario);
+        result.put("url", url.toString());
+        result.put("startedAt", Instant.now().minus(measure).toString());
+        result.put("clients", clients);
+        result.put("warmupSeconds", warmup.toSeconds());
+        result.put("durationSeconds", measure.toSeconds());
+        result.put("seed", seed);
+
+        Histogram total = new Histogram(LoadClient.HIGHEST_TRACKABLE_MICROS, 3);
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+        for (Map.Entry<String, LoadClient.Endpoint> entry : endpoints.entrySet()) {
+            LoadClient.Endpoint endpoint = entry.getValue();
+            total.add(endpoint.histogram);
+
+            Map<String, Object> stats = stats(endpoint.histogram, measure);
+            Map<String, Long> statuses = new TreeMap<>();
+            endpoint.statuses.forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+            stats.put("statuses", statuses);
+            stats.put("failures", endpoint.failures.sum());
+            stats.put("hdr", encode(endpoint.histogram));
+            byEndpoint.put(entry.getKey(), stats);
+        }
+        result.put("total", stats(total, measure));
+        result.put("endpoints", byEndpoint);
+
+        Map<String, Long> errors = new TreeMap<>();
+        falhas.forEach((type, count) -> errors.put(type.getSimpleName(), count));
+        result.put("clientErrors", errors);
+        return result;
+    }
+
+    private static Map<String, Object> stats(Histogram histogram, Duration measure) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", histogram.getTotalCount());
+        stats.put("throughput", Math.round(histogram.getTotalCount() * 10.0 / measure.toMillis() * 1000) / 10.0);
+        Map<String, Double> latency = new LinkedHashMap<>();
+        latency.put("mean", millis(Math.round(histogram.getMean())));
+        for (double p : PERCENTIS) {
+            latency.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                    millis(histogram.getValueAtPercentile(p)));
+        }
+        latency.put("max", millis(histogram.getMaxValue()));
+        stats.put("latencyMs", latency);
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> summary(Map<String, Object> result) {
+        Map<String, Object> summary = new LinkedHashMap<>(result);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        ((Map<String, Map<String, Object>>) result.get("endpoints")).forEach((label, stats) -> {
+            Map<String, Object> copy = new LinkedHashMap<>(stats);
+            copy.remove("hdr");
+            endpoints.put(label, copy);
+        });
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opção inválida: " + arg + " (use --nome=valor)");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Durações no formato da aplicação: {@code 500ms}, {@code 30s}, {@code 5m}.
+     */
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Duração inválida: " + value);
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Cenários do gerador de carga. {@link #setup} roda uma vez, fora da medição, e garante a massa mínima de dados;
+ * cada cliente virtual recebe a sua {@link Session} e chama {@link Session#step()} em laço fechado.
+ */
+public interface LoadScenario {
+
+    String[] TERMOS = {"silva", "santos", "ana", "souza", "oliveira", "gmail", "lima", "costa"};
+
+    void setup(LoadClient client) throws IOException, InterruptedException;
+
+    Session session(LoadClient client, SplittableRandom random);
+
+    interface Session {
+        void step() throws IOException, InterruptedException;
+    }
+
+    static LoadScenario named(String name) {
+        return switch (name) {
+            case "busca" -> new Busca();
+            case "matriculas" -> new Matriculas();
+            case "crud" -> new Crud();
+            case "modos" -> new Modos();
+            case "termos" -> new Termos();
+            default -> throw new IllegalArgumentException("Cenário desconhecido: " + name + " (busca, matriculas, crud, modos, termos)");
+        };
+    }
+
+    /**
+     * Garante pelo menos {@code alunos} alunos e {@code cursos} cursos e devolve os ids.
+     */
+    static long[][] massa(LoadClient client, int alunos, int cursos) throws IOException, InterruptedException {
+        List<Long> cursoIds = new ArrayList<>(client.ids("cursos?fields=nome"));
+        if (cursoIds.size() < cursos) {
+            long professor = client.create("professores",
+                    Map.of("nome", "Professor Carga", "email", "carga" + System.nanoTime() + "@senac.com.br"));
+            for (int i = cursoIds.size(); i < cursos; i++) {
+                cursoIds.add(client.create("cursos", Map.of(
+                        "nome", "Curso de Carga " + i,
+                        "descricao", "Curso criado pelo gerador de carga",
+                        "cargaHoraria", 2400 + i % 48 * 100,
+                        "professor", Map.of("id", professor))));
+            }
+        }
+
+        List<Long> alunoIds = new ArrayList<>(client.ids("alunos?fields=nome"));
+        for (int i = alunoIds.size(); i < alunos; i++) {
+            alunoIds.add(client.create("alunos", Map.of(
+                    "nome", "Aluno " + TERMOS[i % TERMOS.length] + " " + i,
+                    "email", "aluno.carga" + i + "." + System.nanoTime() + "@gmail.com",
+                    "sexo", i % 2 == 0 ? "FEMININO" : "MASCULINO")));
+        }
+
+        return new long[][]{
+                alunoIds.stream().mapToLong(Long::longValue).toArray(),
+                cursoIds.stream().mapToLong(Long::longValue).toArray()
+        };
+    }
+
+    /**
+     * Navegação de leitura: buscas por termo, páginas por offset, paginação por cursor seguindo {@code next},
+     * detalhe de curso e alunos de um curso.
+     */
+    class Busca implements LoadScenario {
+
+        private long[] alunos;
+        private long[] cursos;
+
+        @Override
+        public void setup(LoadClient client) throws IOException, InterruptedException {
+            long[][] massa = massa(client, 2000, 50);
+            alunos = massa[0];
+            cursos = massa[1];
+        }
+
+        @Override
+        public Session session(LoadClient client, SplittableRandom random) {
+            return () -> {
+                int roll = random.nextInt(100);
+                if (roll < 35) {
+                    client.get("GET /alunos/search?q", "alunos/search?size=20&count=estimate&q="
+                            + TERMOS[random.nextInt(TERMOS.length)]);
+                } else if (roll < 55) {
+                    client.get("GET /cursos/search?page", "cursos/search?size=20&page=" + (1 + random.nextInt(3)));
+                } else if (roll < 70) {
+                    String path = "alunos/search?sort=nome&size=50&count=none&cursor=";
+                    for (int page = 0; page < 5 && path != null; page++) {
+                        JsonNode body = client.get("GET /alunos/search?cursor", path);
+                        JsonNode next = body == null ? null : body.path("_links").get("next");
+                        path = next == null ? null : next.asText();
+                    }
+                } else if (roll < 85) {
+                    client.get("GET /cursos/{id}", "cursos/" + cursos[random.nextInt(cursos.length)]);
+                } else if (roll < 95) {
+                    client.get("GET /alunos/{id}", "alunos/" + alunos[random.nextInt(alunos.length)]);
+                } else {
+                    client.get("GET /cursos/{id}/alunos", "cursos/" + cursos[random.nextInt(cursos.length)]
+                            + "/alunos?size=20&count=none");
+                }
+            };
+        }
+    }
+
+    /**
+     * Início de semestre: matrículas concentradas em poucos cursos disputados, com desistências e consultas
+     * de matrícula no meio.
+     */
+    class Matriculas implements LoadScenario {
+
+        private static final int CURSOS_DISPUTADOS = 5;
+
+        private long[] alunos;
+        private long[] cursos;
+
+        @Override
+        public void setup(LoadClient client) throws IOException, InterruptedException {
+            long[][] massa = massa(client, 5000, 50);
+            alunos = massa[0];
+            cursos = massa[1];
+        }
+
+        @Override
+        public Session session(LoadClient client, SplittableRandom random) {
+            return () -> {
+                long curso = random.nextInt(100) < 80
+                        ? cursos[random.nextInt(Math.min(CURSOS_DISPUTADOS, cursos.length))]
+                        : cursos[random.nextInt(cursos.length)];
+                long aluno = alunos[random.nextInt(alunos.length)];
+                String path = "cursos/" + curso + "/alunos/" + aluno;
+
+                int roll = random.nextInt(100);
+                if (roll < 75) {
+                    client.send("POST /cursos/{id}/alunos/{alunoId}", "POST", path, null);
+                } else if (roll < 85) {
+                    client.send("DELETE /cursos/{id}/alunos/{alunoId}", "DELETE", path, null);
+                } else {
+                    client.send("GET /cursos/{id}/alunos/{alunoId}", "GET", path, null);
+                }
+            };
+        }
+    }
+
+    /**
+     * Leituras curtas para comparar os modos de execução com muitos clientes: detalhe de aluno e páginas de cursos,
+     * que usam o banco (worker ou virtual threads, conforme o build), e a verificação de matrícula, que é
+     * {@code @NonBlocking} e roda no event loop. Rodar uma vez em cada build e comparar com {@link LoadComparison}.
+     */
+    class Modos implements LoadScenario {
+
+        private static final int MATRICULADOS = 1000;
+
+        private long[] alunos;
+        private long[] cursos;
+
+        @Override
+        public void setup(LoadClient client) throws IOException, InterruptedException {
+            long[][] massa = massa(client, 5000, 200);
+            alunos = massa[0];
+            cursos = massa[1];
+            // Metade das verificações cai num par matriculado (204), a outra metade não (404)
+            for (int i = 0; i < Math.min(MATRICULADOS, alunos.length); i++) {
+                client.send("POST /cursos/{id}/alunos/{alunoId}", "POST", matricula(i), null);
+            }
+        }
+
+        @Override
+        public Session session(LoadClient client, SplittableRandom random) {
+            return () -> {
+                int roll = random.nextInt(100);
+                if (roll < 40) {
+                    client.get("GET /alunos/{id}", "alunos/" + alunos[random.nextInt(alunos.length)]);
+                } else if (roll < 80) {
+                    client.get("GET /cursos/search?page", "cursos/search?size=20&page=" + random.nextInt(10));
+                } else {
+                    int aluno = random.nextInt(Math.min(2 * MATRICULADOS, alunos.length));
+                    client.send("GET /cursos/{id}/alunos/{alunoId}", "GET", matricula(aluno), null);
+                }
+            };
+        }
+
+        private String matricula(int aluno) {
+            return "cursos/" + cursos[aluno % cursos.length] + "/alunos/" + alunos[aluno];
+        }
+    }
+
+    /**
+     * Só buscas por termo ({@code q}) sobre a massa da carga sintética ({@code -Dquarkus.profile=perf}), com termos do
+     * mesmo {@link SyntheticData}: nomes completos, trechos de email e nomes de curso. Rodar com
+     * {@code search.index.enabled} ligado e desligado para comparar o índice de trigramas com o {@code like} no banco.
+     */
+    class Termos implements LoadScenario {
+
+        private long maiorAluno;
+
+        @Override
+        public void setup(LoadClient client) throws IOException, InterruptedException {
+            JsonNode alunos = client.read("alunos/search?sort=id&direction=desc&size=1&count=none&fields=nome").path("alunos");
+            if (alunos.isEmpty()) {
+                throw new IllegalStateException("Sem alunos: inicie a aplicação com -Dquarkus.profile=perf");
+            }
+            maiorAluno = alunos.get(0).get("id").asLong();
+        }
+
+        @Override
+        public Session session(LoadClient client, SplittableRandom random) {
+            SyntheticData data = new SyntheticData(random.nextLong());
+            return () -> {
+                int roll = random.nextInt(100);
+                if (roll < 45) {
+                    client.get("GET /alunos/search?q=nome", "alunos/search?size=20&q="
+                            + encode(data.nome(data.feminino())));
+                } else if (roll < 80) {
+                    String email = SyntheticData.email(data.nome(data.feminino()), 1 + random.nextLong(maiorAluno), "gmail.com");
+                    client.get("GET /alunos/search?q=email", "alunos/search?size=20&q="
+                            + encode(email.substring(0, email.indexOf('@'))));
+                } else {
+                    String curso = data.curso(random.nextInt(2000));
+                    client.get("GET /cursos/search?q", "cursos/search?size=20&q="
+                            + encode(curso.substring(curso.indexOf(' ') + 1)));
+                }
+            };
+        }
+
+        private static String encode(String termo) {
+            return URLEncoder.encode(termo, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Cadastro de alunos: cada cliente cria, lê, altera e remove os próprios registros.
+     */
+    class Crud implements LoadScenario {
+
+        @Override
+        public void setup(LoadClient client) {
+        }
+
+        @Override
+        public Session session(LoadClient client, SplittableRandom random) {
+            List<Long> meus = new ArrayList<>();
+            return () -> {
+                int roll = random.nextInt(100);
+                if (meus.isEmpty() || roll < 30) {
+                    HttpResponse<byte[]> response = client.send("POST /alunos", "POST", "alunos", aluno(random));
+                    if (response.statusCode() == 201 || response.statusCode() == 200) {
+                        meus.add(client.json(response).get("id").asLong());
+                    }
+                } else if (roll < 70) {
+                    client.send("GET /alunos/{id}", "GET", "alunos/" + meus.get(random.nextInt(meus.size())), null);
+                } else if (roll < 90) {
+                    client.send("PUT /alunos/{id}", "PUT", "alunos/" + meus.get(random.nextInt(meus.size())),
+                            aluno(random));
+                } else {
+                    long id = meus.remove(random.nextInt(meus.size()));
+                    client.send("DELETE /alunos/{id}", "DELETE", "alunos/" + id, null);
+                }
+            };
+        }
+
+        private static Map<String, Object> aluno(SplittableRandom random) {
+            String termo = TERMOS[random.nextInt(TERMOS.length)];
+            return Map.of(
+                    "nome", "Aluno " + termo + " " + random.nextInt(1_000_000),
+                    "email", termo + "." + random.nextLong(Long.MAX_VALUE) + "@gmail.com",
+                    "sexo", random.nextBoolean() ? "FEMININO" : "MASCULINO");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar as representações e as respostas de busca de uma página e de serializá-las com Jackson.
+ * Rodar com {@code java -jar benchmarks/target/benchmarks.jar -prof gc} para ver também a alocação por operação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepresentationBenchmark {
+
+    private static final List<String> ALUNO_FIELDS = List.of("nome", "email", "sexo");
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    @Param({"5"})
+    int cursosPorAluno;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UriInfo uriInfo;
+    private List<Aluno> alunos;
+    private List<Curso> cursos;
+    private SearchAlunoResponse alunoPage;
+    private SearchCursoResponse cursoPage;
+    private String cursor;
+
+    @Setup
+    public void setup() {
+        MultivaluedMap<String, String> query = new MultivaluedHashMap<>();
+        query.putSingle("sort", "nome");
+        uriInfo = uriInfo(URI.create("http://localhost:8080/"), query);
+
+        Professor professor = new Professor("Maria Souza", "maria.souza@senac.com.br");
+        professor.id = 1L;
+
+        cursos = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Curso curso = new Curso("Curso " + i, "Descrição do curso " + i, 2400 + i * 10, professor);
+            curso.id = (long) i + 1;
+            cursos.add(curso);
+        }
+
+        alunos = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Aluno aluno = new Aluno("Aluno " + i, "aluno" + i + "@gmail.com",
+                    i % 2 == 0 ? Aluno.Sexo.FEMININO : Aluno.Sexo.MASCULINO);
+            aluno.id = (long) i + 1;
+            for (int c = 0; c < cursosPorAluno; c++) {
+                Curso curso = cursos.get((i + c) % cursos.size());
+                aluno.cursos.add(curso);
+                curso.alunos.add(aluno);
+            }
+            alunos.add(aluno);
+        }
+
+        alunoPage = searchAlunos();
+        cursoPage = searchCursos();
+        cursor = KeysetCursor.after("nome", "asc", "Aluno 19", 20).encode();
+    }
+
+    @Benchmark
+    public List<AlunoRepresentation> alunoRepresentations() {
+        return alunos.stream().map(a -> AlunoRepresentation.from(a, uriInfo)).toList();
+    }
+
+    @Benchmark
+    public List<CursoRepresentation> cursoRepresentations() {
+        return cursos.stream().map(c -> CursoRepresentation.from(c, uriInfo)).toList();
+    }
+
+    @Benchmark
+    public SearchAlunoResponse searchAlunos() {
+        return SearchAlunoResponse.from(alunoRepresentations(), uriInfo, "silva", "nome", "asc", 3, pageSize,
+                1000L, 1000L / pageSize, true, "exact");
+    }
+
+    @Benchmark
+    public SearchCursoResponse searchCursos() {
+        return SearchCursoResponse.from(cursoRepresentations(), uriInfo, "java", "nome", "asc", 3, pageSize,
+                1000L, 1000L / pageSize, true, "exact");
+    }
+
+    @Benchmark
+    public byte[] serializeAlunoPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(alunoPage);
+    }
+
+    @Benchmark
+    public byte[] serializeCursoPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cursoPage);
+    }
+
+    @Benchmark
+    public FieldSelection parseFields() {
+        return FieldSelection.parse("nome,email,_links", "cursos", ALUNO_FIELDS, Set.of("cursos"));
+    }
+
+    @Benchmark
+    public KeysetCursor decodeCursor() {
+        return KeysetCursor.decode(cursor);
+    }
+
+    @Benchmark
+    public String encodeCursor() {
+        return KeysetCursor.after("nome", "asc", "Aluno 19", 20).encode();
+    }
+
+    /**
+     * Só o que as representações e respostas de busca usam: a URI base e os parâmetros da query.
+     */
+    private static UriInfo uriInfo(URI baseUri, MultivaluedMap<String, String> query) {
+        return (UriInfo) Proxy.newProxyInstance(UriInfo.class.getClassLoader(), new Class<?>[]{UriInfo.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getBaseUri" -> baseUri;
+                    case "getQueryParameters" -> query;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
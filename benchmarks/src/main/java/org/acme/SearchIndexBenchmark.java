@@ -0,0 +1,56 @@
+package org.acme;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da consulta ao índice de trigramas por termo, sem o banco: interseção das listas e conferência dos textos.
+ * A comparação com o {@code like} no H2 é o cenário {@code termos} do {@link LoadGenerator}, com o índice ligado
+ * e desligado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchIndexBenchmark {
+
+    private static final String[] SOBRENOMES = {"silva", "santos", "mendes", "rocha", "oliveira"};
+
+    @Param({"50000"})
+    int alunos;
+
+    @Param({"silva", "ana.c", "mendes", "rocha@", "xyz"})
+    String termo;
+
+    private TrigramIndex index;
+
+    @Setup
+    public void setup() {
+        index = new TrigramIndex();
+        for (int i = 0; i < alunos; i++) {
+            String sobrenome = SOBRENOMES[i % SOBRENOMES.length];
+            String nome = (i % 7 == 0 ? "Ana Clara " : "Aluno " + i + " ") + sobrenome;
+            String email = "aluno" + i + "@" + sobrenome + ".com";
+            index.put(i, nome, email);
+        }
+    }
+
+    @Benchmark
+    public List<Long> trigramIndex() {
+        return index.search(termo, 10_000);
+    }
+}
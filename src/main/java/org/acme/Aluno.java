@@ -1,19 +1,32 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@NamedEntityGraph(
+        name = "Aluno.cursos",
+        attributeNodes = @NamedAttributeNode(value = "cursos", subgraph = "curso.professor"),
+        subgraphs = @NamedSubgraph(name = "curso.professor", attributeNodes = @NamedAttributeNode("professor"))
+)
 public class Aluno extends PanacheEntity {
 
     public enum Sexo {
         MASCULINO,FEMININO
     }
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Version
+    @ColumnDefault("0")
+    public long version;
+
     @NotNull
     @Size(min = 2, max = 100, message = "O nome deve ter entre 2 a 100 letras")
     public String nome;
@@ -27,6 +40,7 @@ public class Aluno extends PanacheEntity {
     public Sexo sexo;
 
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
             name = "aluno_curso",
             joinColumns = @JoinColumn(name = "aluno_id"),
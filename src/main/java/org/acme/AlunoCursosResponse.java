@@ -0,0 +1,110 @@
+package org.acme;
+
+import jakarta.ws.rs.core.UriInfo;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Página dos cursos em que um aluno está matriculado ({@code GET /alunos/{id}/cursos}). Cada curso vem no
+ * mesmo formato resumido usado dentro de {@link AlunoRepresentation}, sem os alunos dele.
+ */
+public class AlunoCursosResponse {
+
+    public long alunoId;
+    public List<Map<String, Object>> cursos;
+    public SearchCursoResponse.PaginationMetadata pagination;
+    public Map<String, String> _links;
+
+    public AlunoCursosResponse() {
+    }
+
+    public static AlunoCursosResponse from(
+            long alunoId, List<Curso> cursos, UriInfo uriInfo, String query, String sort, String direction,
+            int page, int size, Long totalElements, Long totalPages, boolean hasNext, String countMode
+    ) {
+        AlunoCursosResponse response = create(alunoId, cursos, uriInfo, size, totalElements, totalPages);
+        response.pagination.page = page;
+
+        String baseUrl = baseUrl(uriInfo, alunoId);
+        String params = params(query, sort, direction, size, countMode);
+
+        response._links.put("self", baseUrl + "?" + params + "&page=" + page);
+        response._links.put("first", baseUrl + "?" + params + "&page=1");
+        if (totalPages != null) {
+            response._links.put("last", baseUrl + "?" + params + "&page=" + totalPages);
+        }
+        if (page > 1) {
+            response._links.put("prev", baseUrl + "?" + params + "&page=" + (page - 1));
+        }
+        if (hasNext) {
+            response._links.put("next", baseUrl + "?" + params + "&page=" + (page + 1));
+        }
+
+        return response;
+    }
+
+    public static AlunoCursosResponse fromCursor(
+            long alunoId, List<Curso> cursos, UriInfo uriInfo, String query, String sort, String direction, int size,
+            Long totalElements, Long totalPages, String countMode, String cursor, String nextCursor, String prevCursor
+    ) {
+        AlunoCursosResponse response = create(alunoId, cursos, uriInfo, size, totalElements, totalPages);
+        response.pagination.cursor = cursor;
+
+        String baseUrl = baseUrl(uriInfo, alunoId);
+        String params = params(query, sort, direction, size, countMode);
+
+        response._links.put("self", baseUrl + "?" + params + "&cursor=" + cursor);
+        response._links.put("first", baseUrl + "?" + params + "&cursor=");
+        if (prevCursor != null) {
+            response._links.put("prev", baseUrl + "?" + params + "&cursor=" + prevCursor);
+        }
+        if (nextCursor != null) {
+            response._links.put("next", baseUrl + "?" + params + "&cursor=" + nextCursor);
+        }
+
+        return response;
+    }
+
+    private static AlunoCursosResponse create(
+            long alunoId, List<Curso> cursos, UriInfo uriInfo, int size, Long totalElements, Long totalPages
+    ) {
+        AlunoCursosResponse response = new AlunoCursosResponse();
+        URI baseUri = uriInfo.getBaseUri();
+
+        response.alunoId = alunoId;
+        response.cursos = cursos.stream()
+                .map(curso -> AlunoRepresentation.cursoMap(baseUri, curso.id, curso.nome, curso.descricao, curso.cargaHoraria))
+                .toList();
+
+        response.pagination = new SearchCursoResponse.PaginationMetadata();
+        response.pagination.size = size;
+        response.pagination.totalElements = totalElements;
+        response.pagination.totalPages = totalPages;
+
+        response._links = new HashMap<>();
+        response._links.put("aluno", baseUri + "alunos/" + alunoId);
+
+        return response;
+    }
+
+    private static String baseUrl(UriInfo uriInfo, long alunoId) {
+        return uriInfo.getBaseUri() + "alunos/" + alunoId + "/cursos";
+    }
+
+    private static String params(String query, String sort, String direction, int size, String countMode) {
+        StringBuilder params = new StringBuilder();
+        if (query != null && !query.isBlank()) {
+            params.append("q=").append(query).append("&");
+        }
+        params.append("sort=").append(sort)
+                .append("&direction=").append(direction)
+                .append("&size=").append(size);
+        if (countMode != null && !"exact".equalsIgnoreCase(countMode)) {
+            params.append("&count=").append(countMode);
+        }
+        return params.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.ws.rs.core.UriInfo;
 
 import java.net.URI;
@@ -21,6 +22,14 @@ public class AlunoRepresentation {
     public AlunoRepresentation() {
     }
 
+    /**
+     * Representação montada a partir de {@code fields}/{@code embed}: os campos não pedidos ficam de fora do JSON
+     * em vez de virem como {@code null}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Partial extends AlunoRepresentation {
+    }
+
     public static AlunoRepresentation from(Aluno aluno, UriInfo uriInfo) {
         AlunoRepresentation rep = new AlunoRepresentation();
         rep.id = aluno.id;
@@ -28,29 +37,53 @@ public class AlunoRepresentation {
         rep.email = aluno.email;
         rep.sexo = aluno.sexo;
 
-        rep._links = new HashMap<>();
         URI baseUri = uriInfo.getBaseUri();
-
-        rep._links.put("self", baseUri + "alunos/" + aluno.id);
-        rep._links.put("all", baseUri + "alunos");
-        rep._links.put("delete", baseUri + "alunos/" + aluno.id);
-        rep._links.put("update", baseUri + "alunos/" + aluno.id);
-        rep._links.put("search", baseUri + "alunos/search");
+        rep._links = links(baseUri, aluno.id);
 
         rep.cursos = aluno.cursos.stream()
-                .map(curso -> {
-                    Map<String, Object> cursoMap = new HashMap<>();
-                    cursoMap.put("id", curso.id);
-                    cursoMap.put("nome", curso.nome);
-                    cursoMap.put("descricao", curso.descricao);
-                    cursoMap.put("cargaHoraria", curso.cargaHoraria);
+                .map(curso -> cursoMap(baseUri, curso.id, curso.nome, curso.descricao, curso.cargaHoraria))
+                .collect(Collectors.toList());
 
-                    cursoMap.put("_link", baseUri + "cursos/" + curso.id);
-
-                    return cursoMap;
-                }).collect(Collectors.toList());
+        return rep;
+    }
 
+    /**
+     * Representação parcial a partir de uma linha de projeção: só os campos de {@code selection} são preenchidos.
+     *
+     * @param cursos cursos já no formato embutido, ou {@code null} quando não foram pedidos em {@code embed}
+     */
+    public static AlunoRepresentation from(
+            Map<String, Object> row, FieldSelection selection, List<Map<String, Object>> cursos, UriInfo uriInfo
+    ) {
+        AlunoRepresentation rep = new Partial();
+        rep.id = (Long) row.get("id");
+        rep.nome = selection.has("nome") ? (String) row.get("nome") : null;
+        rep.email = selection.has("email") ? (String) row.get("email") : null;
+        rep.sexo = selection.has("sexo") ? (Aluno.Sexo) row.get("sexo") : null;
+        rep._links = selection.has(FieldSelection.LINKS) ? links(uriInfo.getBaseUri(), rep.id) : null;
+        rep.cursos = cursos;
         return rep;
     }
 
+    static Map<String, Object> cursoMap(URI baseUri, Long id, String nome, String descricao, int cargaHoraria) {
+        Map<String, Object> cursoMap = new HashMap<>();
+        cursoMap.put("id", id);
+        cursoMap.put("nome", nome);
+        cursoMap.put("descricao", descricao);
+        cursoMap.put("cargaHoraria", cargaHoraria);
+
+        cursoMap.put("_link", baseUri + "cursos/" + id);
+
+        return cursoMap;
+    }
+
+    private static Map<String, String> links(URI baseUri, long id) {
+        Map<String, String> links = new HashMap<>();
+        links.put("self", baseUri + "alunos/" + id);
+        links.put("all", baseUri + "alunos");
+        links.put("delete", baseUri + "alunos/" + id);
+        links.put("update", baseUri + "alunos/" + id);
+        links.put("search", baseUri + "alunos/search");
+        return links;
+    }
 }
@@ -1,11 +1,20 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -16,24 +25,73 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Path("/alunos")
+@UnlessBuildProperty(name = "virtual-threads.alunos.enabled", stringValue = "true", enableIfMissing = true)
 public class AlunoResource {
 
+    private static final List<String> FIELDS = List.of("nome", "email", "sexo");
+    private static final Set<String> EMBEDS = Set.of("cursos");
+
+    /**
+     * Campos de ordenação aceitos -> coluna do {@code order by} e do seek dos cursores.
+     */
+    static final Map<String, KeysetQuery.SortKey> SORTS = Map.of(
+            "id", KeysetQuery.SortKey.of("id"),
+            "nome", KeysetQuery.SortKey.of("nome"),
+            "email", KeysetQuery.SortKey.of("email"),
+            "sexo", KeysetQuery.SortKey.of("sexo", Aluno.Sexo.class));
+
     @Context
     UriInfo uriInfo;
 
+    @Context
+    Request request;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    SearchCountCache countCache;
+
+    @Inject
+    SearchIndex searchIndex;
+
+    @Inject
+    Projections projections;
+
+    @Inject
+    ExportService exports;
+
+    @Inject
+    ImportService imports;
+
+    @Inject
+    EmailIndex emails;
+
+    @Inject
+    MatriculaService matriculas;
+
+    @Inject
+    MatriculaIndex matriculaIndex;
+
+    @Inject
+    CursoStats cursoStats;
+
+    @Inject
+    MatriculaMetrics matriculaMetrics;
+
     private AlunoRepresentation rep(Aluno a) {
         return AlunoRepresentation.from(a, uriInfo);
     }
 
-    private List<AlunoRepresentation> repList(List<Aluno> alunos) {
-        return alunos.stream().map(this::rep).collect(Collectors.toList());
-    }
-
     @GET
     @Operation(
             summary = "Retorna todos os alunos",
@@ -47,8 +105,33 @@ public class AlunoResource {
                     schema = @Schema(implementation = Aluno.class, type = SchemaType.ARRAY)
             )
     )
-    public Response getAll(){
-        return Response.ok(repList(Aluno.listAll())).build();
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getAll(
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, email, sexo e _links); o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Associações embutidas em cada item, separadas por vírgula (cursos)")
+            @QueryParam("embed") String embed
+    ) {
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, embed, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        if (selection != null) {
+            return Response.ok(JsonStreaming.array(objectMapper,
+                    lastId -> project(projections.select("Aluno", columns(selection, null), "id > :after order by id",
+                            Parameters.with("after", lastId), 0, JsonStreaming.CHUNK_SIZE), selection),
+                    rep -> rep.id, rep -> rep)).build();
+        }
+
+        return Response.ok(JsonStreaming.array(objectMapper, this::chunkAfter, this::rep)).build();
+    }
+
+    private List<Aluno> chunkAfter(long lastId) {
+        List<Aluno> chunk = Aluno.<Aluno>find("id > ?1", Sort.by("id"), lastId).page(0, JsonStreaming.CHUNK_SIZE).list();
+        return FetchPlans.initialize(Aluno.getEntityManager(), Aluno.class, "Aluno.cursos", chunk);
     }
 
     @GET
@@ -73,6 +156,8 @@ public class AlunoResource {
             )
     )
     @Path("{id}")
+    // Aluno, tag dos cursos e coleção de cursos
+    @SqlBudget(statements = 3)
     public Response getById(
             @Parameter(description = "Id do aluno a ser pesquisado", required = true)
             @PathParam("id") long id
@@ -81,7 +166,22 @@ public class AlunoResource {
         if (entity == null) {
             return Response.status(404).build();
         }
-        return Response.ok(rep(entity)).build();
+
+        EntityTag tag = etag(entity);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).build();
+        }
+        return Response.ok(rep(entity)).tag(tag).build();
+    }
+
+    private EntityTag etag(Aluno aluno) {
+        // Os cursos embutidos na representação entram na tag pelas versões deles
+        List<Object[]> cursos = Aluno.getEntityManager()
+                .createQuery("select c.id, c.version from Aluno a join a.cursos c where a.id = :id", Object[].class)
+                .setParameter("id", aluno.id)
+                .getResultList();
+        return ETags.of(aluno.id, aluno.version, ETags.digest(cursos));
     }
 
     @GET
@@ -106,6 +206,7 @@ public class AlunoResource {
             )
     )
     @Path("/search")
+    @CollectionETag
     public Response search(
             @Parameter(description = "Query de busca por nome ou email")
             @QueryParam("q") String q,
@@ -114,38 +215,295 @@ public class AlunoResource {
             @Parameter(description = "Direção da ordenação ascendente/descendente")
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @QueryParam("page") @DefaultValue("1") int page,
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Parameter(description = "Cursor opaco para paginação por keyset (vazio inicia na primeira página)")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Modo de contagem do total: exact, estimate (cache de curta duração) ou none")
+            @QueryParam("count") @DefaultValue("exact") String count,
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, email, sexo e _links); o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Associações embutidas em cada item, separadas por vírgula (cursos)")
+            @QueryParam("embed") String embed
     ) {
-        Set<String> allowed = Set.of("id", "nome", "email", "sexo");
-        if (!allowed.contains(sort)) {
+        if (!SORTS.containsKey(sort)) {
             sort = "id";
         }
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, embed, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+        if (selection != null) {
+            return searchProjected(q, sort, direction, page, size, cursor, count, selection);
+        }
+
+        if (cursor != null) {
+            return searchByCursor(q, sort, direction, size, cursor, count);
+        }
+
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending;
+        // Desempate pelo id: sem ele linhas com o mesmo valor podem mudar de página entre uma consulta e outra
+        Sort sortObj = "id".equals(sort)
+                ? Sort.by("id", sortDirection)
+                : Sort.by(sort, sortDirection).and("id", sortDirection);
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<Aluno> query = (q == null || q.isBlank())
-                ? Aluno.findAll(sortObj)
-                : Aluno.find("lower(nome) like ?1 or lower(email) like ?1",
-                sortObj,
-                "%" + q.toLowerCase() + "%");
+        List<Long> candidates = searchIndex.candidates(Aluno.class, q);
+
+        PanacheQuery<Aluno> query;
+        if (q == null || q.isBlank()) {
+            query = Aluno.findAll(sortObj);
+        } else if (candidates != null) {
+            query = Aluno.find("id in ?1", sortObj, candidates);
+        } else {
+            query = Aluno.find("lower(nome) like ?1 or lower(email) like ?1",
+                    sortObj,
+                    SearchCountCache.likePattern(q));
+        }
 
-        long totalElements = query.count();
-        long totalPages = (long) Math.ceil((double) totalElements / size);
+        Long totalElements = countCache.count(Aluno.class, count, q,
+                candidates == null ? query::count : () -> candidates.size());
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        List<Aluno> alunos;
+        boolean hasNext;
+        if (candidates != null && "id".equals(sort)) {
+            // Ids já vêm ordenados do índice: só os ids da página vão para o banco
+            int from = Math.min(effectivePage * size, candidates.size());
+            int to = Math.min(from + size, candidates.size());
+            List<Long> pageIds = "desc".equalsIgnoreCase(direction)
+                    ? candidates.reversed().subList(from, to)
+                    : candidates.subList(from, to);
+            alunos = Aluno.find("id in ?1", sortObj, pageIds).list();
+            hasNext = to < candidates.size();
+        } else if (totalPages == null) {
+            // Sem total: busca uma linha a mais só para saber se existe próxima página
+            int offset = effectivePage * size;
+            alunos = new ArrayList<>(query.range(offset, offset + size).list());
+            hasNext = alunos.size() > size;
+            if (hasNext) {
+                alunos.remove(size);
+            }
+        } else {
+            alunos = query.page(effectivePage, size).list();
+            hasNext = page < totalPages;
+        }
 
-        List<Aluno> alunos = query.page(effectivePage, size).list();
+        FetchPlans.initialize(Aluno.getEntityManager(), Aluno.class, "Aluno.cursos", alunos);
 
         SearchAlunoResponse response = SearchAlunoResponse.from(
-                alunos, uriInfo, q, sort, direction, page, size, totalElements, totalPages
+                alunos.stream().map(this::rep).toList(), uriInfo, q, sort, direction, page, size, totalElements, totalPages, hasNext, count
         );
 
         return Response.ok(response).build();
     }
 
+    private Response searchByCursor(String q, String sort, String direction, int size, String cursor, String count) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Aluno.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Aluno> result = keyset.fetch(filter(pattern, candidates, params), params, 1, size,
+                (where, p, offset, limit) -> Aluno.<Aluno>find(where, p).range(offset, offset + limit - 1).list(),
+                aluno -> keysetValue(aluno, keyset.sort), aluno -> aluno.id);
+        List<Aluno> alunos = result.items();
+
+        FetchPlans.initialize(Aluno.getEntityManager(), Aluno.class, "Aluno.cursos", alunos);
+
+        SearchAlunoResponse response = SearchAlunoResponse.fromCursor(
+                alunos.stream().map(this::rep).toList(), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
+        );
+
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Busca com {@code fields}/{@code embed}: mesma filtragem, ordenação e paginação, mas a página vem de uma
+     * projeção só com as colunas pedidas, sem carregar entidades.
+     */
+    private Response searchProjected(
+            String q, String sort, String direction, int page, int size, String cursor, String count,
+            FieldSelection selection
+    ) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Aluno.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Map<String, Object>> result = keyset.fetch(filter(pattern, candidates, params), params, page, size,
+                (where, p, offset, limit) -> projections.select("Aluno", columns(selection, keyset.path), where, p, offset, limit));
+
+        if (cursor == null) {
+            return Response.ok(SearchAlunoResponse.from(
+                    project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, page, size,
+                    totalElements, totalPages, result.hasMore(), count
+            )).build();
+        }
+        return Response.ok(SearchAlunoResponse.fromCursor(
+                project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
+        )).build();
+    }
+
+    /**
+     * Filtro do termo {@code q}: os ids do índice de trigramas ou, sem eles, o {@code like} no banco. Vazio sem termo.
+     */
+    static String filter(String pattern, List<Long> candidates, Parameters params) {
+        if (candidates != null) {
+            params.and("ids", candidates);
+            return "id in :ids";
+        }
+        if (pattern != null) {
+            params.and("q", pattern);
+            return "(lower(nome) like :q or lower(email) like :q)";
+        }
+        return "";
+    }
+
+    private Long total(String q, String count, String pattern, List<Long> candidates) {
+        return countCache.count(Aluno.class, count, q, () -> {
+            if (pattern == null) {
+                return Aluno.count();
+            }
+            return candidates != null
+                    ? candidates.size()
+                    : Aluno.count("lower(nome) like ?1 or lower(email) like ?1", pattern);
+        });
+    }
+
+    /**
+     * Colunas da projeção: os campos pedidos e, quando houver ordenação, o valor usado nos cursores.
+     */
+    private static Map<String, String> columns(FieldSelection selection, String sortPath) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (String field : selection.columns(FIELDS)) {
+            columns.put(field, field);
+        }
+        if (sortPath != null) {
+            columns.put(Projections.SORT_KEY, sortPath);
+        }
+        return columns;
+    }
+
+    private List<AlunoRepresentation> project(List<Map<String, Object>> rows, FieldSelection selection) {
+        Map<Long, List<Object[]>> cursos = selection.embeds("cursos")
+                ? projections.children("select a.id, c.id, c.nome, c.descricao, c.cargaHoraria "
+                        + "from Aluno a join a.cursos c where a.id in :ids", Projections.ids(rows))
+                : null;
+
+        URI baseUri = uriInfo.getBaseUri();
+        return rows.stream()
+                .map(row -> AlunoRepresentation.from(row, selection, cursos == null ? null
+                        : cursos.getOrDefault((Long) row.get("id"), List.of()).stream()
+                                .map(c -> AlunoRepresentation.cursoMap(baseUri, (Long) c[1], (String) c[2], (String) c[3], (Integer) c[4]))
+                                .toList(), uriInfo))
+                .toList();
+    }
+
+    static Object keysetValue(Aluno aluno, String sort) {
+        return switch (sort) {
+            case "nome" -> aluno.nome;
+            case "email" -> aluno.email;
+            case "sexo" -> aluno.sexo.name();
+            default -> aluno.id;
+        };
+    }
+
+    @GET
+    @Operation(
+            summary = "Exporta todos os alunos",
+            description = "Exporta todos os alunos em NDJSON (uma linha JSON por registro) ou CSV, sem links"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = {
+                    @Content(mediaType = ExportService.NDJSON),
+                    @Content(mediaType = ExportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("/export")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String format
+    ) {
+        return exports.export(format, "alunos",
+                "select a.id, a.nome, a.email, a.sexo from Aluno a order by a.id",
+                "id", "nome", "email", "sexo");
+    }
+
+    @POST
+    @Operation(
+            summary = "Importa alunos em massa",
+            description = "Importa alunos de um corpo NDJSON (um objeto JSON por linha) ou CSV (cabeçalho nome,email,sexo), "
+                    + "validando cada registro e devolvendo o resumo das linhas rejeitadas"
+    )
+    @RequestBody(
+            required = true,
+            content = {
+                    @Content(mediaType = ImportService.NDJSON),
+                    @Content(mediaType = ImportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ImportResult.class)
+            )
+    )
+    @Path("/import")
+    @Consumes({ImportService.NDJSON, ImportService.CSV})
+    @Produces(MediaType.APPLICATION_JSON)
+    // Sequência e inserts em blocos: o número de comandos cresce com o arquivo
+    @SqlBudget(statements = SqlBudget.UNLIMITED, repeats = SqlBudget.UNLIMITED)
+    public Response importar(
+            @HeaderParam("Content-Type") String contentType,
+            InputStream body
+    ) {
+        ImportResult result = imports.importar(body, contentType, Aluno.class,
+                "insert into aluno (id, nome, email, sexo) values (?, ?, ?, ?)",
+                (insert, aluno) -> {
+                    insert.setString(2, aluno.nome);
+                    insert.setString(3, aluno.email);
+                    insert.setString(4, aluno.sexo.name());
+                },
+                aluno -> aluno.email,
+                aluno -> searchIndex.put(Aluno.class, aluno.id, aluno.nome, aluno.email));
+        countCache.invalidate(Aluno.class);
+        return Response.ok(result).build();
+    }
+
     @POST
     @Operation(
             summary = "Cria um novo aluno",
@@ -174,9 +532,33 @@ public class AlunoResource {
                     schema = @Schema(implementation = String.class)
             )
     )
+    @APIResponse(
+            responseCode = "409",
+            description = "Conflict",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
     @Transactional
     public Response insert(@Valid Aluno aluno) {
+        if (!emails.disponivel(Aluno.class, aluno.email, null)) {
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+
         Aluno.persist(aluno);
+        try {
+            Aluno.flush();
+        } catch (PersistenceException e) {
+            // Outra requisição gravou o mesmo email entre a verificação e o insert
+            if (!EmailIndex.duplicado(e)) {
+                throw e;
+            }
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+        emails.registrar(Aluno.class, aluno.email);
+        searchIndex.put(Aluno.class, aluno.id, aluno.nome, aluno.email);
+        countCache.invalidate(Aluno.class);
         return Response.status(201).entity(rep(aluno)).build();
     }
 
@@ -206,7 +588,12 @@ public class AlunoResource {
         if (entity == null) {
             return Response.status(404).build();
         }
+        // Antes do delete: as matrículas do aluno ainda estão em aluno_curso
+        cursoStats.alunoRemovido(id, entity.sexo);
         Aluno.deleteById(id);
+        searchIndex.remove(Aluno.class, id);
+        matriculaIndex.alunoRemovido(id);
+        countCache.invalidate(Aluno.class);
         return Response.noContent().build();
     }
 
@@ -246,6 +633,22 @@ public class AlunoResource {
                     schema = @Schema(implementation = String.class)
             )
     )
+    @APIResponse(
+            responseCode = "412",
+            description = "Precondition Failed",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "409",
+            description = "Conflict",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
     @Transactional
     @Path("{id}")
     public Response update(
@@ -257,11 +660,38 @@ public class AlunoResource {
             return Response.status(404).build();
         }
 
+        // If-Match: só grava se o cliente partiu da representação atual
+        Response.ResponseBuilder preconditionFailed = request.evaluatePreconditions(etag(entity));
+        if (preconditionFailed != null) {
+            return preconditionFailed.entity("O aluno foi alterado desde a última leitura").build();
+        }
+
+        if (!emails.disponivel(Aluno.class, newAluno.email, id)) {
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+
+        Aluno.Sexo sexoAnterior = entity.sexo;
         entity.nome = newAluno.nome;
         entity.email = newAluno.email;
         entity.sexo = newAluno.sexo;
 
-        return Response.status(200).entity(rep(entity)).build();
+        try {
+            Aluno.flush();
+        } catch (OptimisticLockException e) {
+            return Response.status(412).entity("O aluno foi alterado por outra requisição").build();
+        } catch (PersistenceException e) {
+            if (!EmailIndex.duplicado(e)) {
+                throw e;
+            }
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+        emails.registrar(Aluno.class, entity.email);
+        cursoStats.sexoAlterado(id, sexoAnterior, entity.sexo);
+
+        countCache.invalidate(Aluno.class);
+        searchIndex.put(Aluno.class, id, entity.nome, entity.email);
+
+        return Response.status(200).entity(rep(entity)).tag(etag(entity)).build();
     }
 
     //Matricula a partir de aqui
@@ -283,7 +713,7 @@ public class AlunoResource {
             description = "OK",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Aluno.class)
+                    schema = @Schema(implementation = MatriculaResponse.class)
             )
     )
     @APIResponse(
@@ -308,35 +738,44 @@ public class AlunoResource {
             @PathParam("id") long alunoId,
             @PathParam(("cursoId")) long cursoId
     ){
-        Aluno aluno = Aluno.findById(alunoId);
-        if (aluno == null) {
+        if (!matriculas.alunoExiste(alunoId)) {
+            matriculaMetrics.matricularNaoEncontrado();
             return Response.status(404).entity("Aluno não encontrado").build();
         }
 
-        Curso curso = Curso.findById(cursoId);
-        if (curso == null) {
+        if (!matriculas.cursoExiste(cursoId)) {
+            matriculaMetrics.matricularNaoEncontrado();
             return Response.status(404).entity("Curso não encontrado").build();
         }
 
-        if(aluno.cursos.contains(curso)) {
+        if (!matriculas.matricular(alunoId, cursoId)) {
+            matriculaMetrics.matricularConflito();
             return Response.status(409).entity("Aluno já está matriculado neste curso").build();
         }
 
-        aluno.cursos.add(curso);
-        return Response.status(200).entity(rep(aluno)).build();
+        return Response.status(200).entity(MatriculaResponse.from(alunoId, cursoId, uriInfo)).build();
     }
 
     @GET
     @Operation(
-            summary = "Retorna um aluno e todos os cursos em que está matriculado",
-            description = "Retorna um aluno e todos os cursos em que está matriculado no formato JSON"
+            summary = "Retorna os cursos em que o aluno está matriculado",
+            description = "Retorna uma página dos cursos em que o aluno está matriculado, com busca, ordenação e paginação "
+                    + "por página ou por cursor como em /cursos/search, consultando só as matrículas da tabela aluno_curso"
     )
     @APIResponse(
             responseCode = "200",
             description = "OK",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Aluno.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = AlunoCursosResponse.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
             )
     )
     @APIResponse(
@@ -348,15 +787,68 @@ public class AlunoResource {
             )
     )
     @Path("{id}/cursos")
+    @CollectionETag
     public Response listarCursos(
-            @PathParam("id") long alunoId
+            @PathParam("id") long alunoId,
+            @Parameter(description = "Query de busca por nome ou descricao")
+            @QueryParam("q") String q,
+            @Parameter(description = "Campo de ordenação da lista de retorno")
+            @QueryParam("sort") @DefaultValue("id") String sort,
+            @Parameter(description = "Direção da ordenação ascendente/descendente")
+            @QueryParam("direction") @DefaultValue("asc") String direction,
+            @QueryParam("page") @DefaultValue("1") int page,
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Parameter(description = "Cursor opaco para paginação por keyset (vazio inicia na primeira página)")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Modo de contagem do total: exact ou none (estimate é tratado como exact)")
+            @QueryParam("count") @DefaultValue("exact") String count
     ){
-        Aluno aluno = Aluno.findById(alunoId);
-        if (aluno == null) {
-            return Response.status(404).build();
+        if (!matriculas.alunoExiste(alunoId)) {
+            return Response.status(404).entity("Aluno não encontrado").build();
+        }
+
+        if (!CursoResource.SORTS.containsKey(sort)) {
+            sort = "id";
+        }
+
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(CursoResource.SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        // Só as matrículas do aluno: o subselect lê aluno_curso em vez de percorrer a coleção da entidade
+        Parameters params = Parameters.with("aluno", alunoId);
+        String pattern = SearchCountCache.likePattern(q);
+        String match = CursoResource.filter(pattern, searchIndex.candidates(Curso.class, q), params);
+        String filter = "id in (select c.id from Aluno a join a.cursos c where a.id = :aluno)"
+                + (match.isEmpty() ? "" : " and " + match);
+
+        Long totalElements;
+        if ("none".equalsIgnoreCase(count)) {
+            totalElements = null;
+        } else if (pattern == null) {
+            totalElements = (long) matriculaIndex.countCursos(alunoId);
+        } else {
+            totalElements = Curso.count(filter, params);
         }
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
 
-        return Response.ok(rep(aluno)).build();
+        KeysetQuery.Page<Curso> result = keyset.fetch(filter, params, page, size,
+                (where, p, offset, limit) -> Curso.<Curso>find(where, p).range(offset, offset + limit - 1).list(),
+                curso -> CursoResource.keysetValue(curso, keyset.sort), curso -> curso.id);
+
+        if (cursor == null) {
+            return Response.ok(AlunoCursosResponse.from(
+                    alunoId, result.items(), uriInfo, q, keyset.sort, keyset.direction, page, size,
+                    totalElements, totalPages, result.hasMore(), count
+            )).build();
+        }
+        return Response.ok(AlunoCursosResponse.fromCursor(
+                alunoId, result.items(), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
+        )).build();
     }
 
     @DELETE
@@ -389,21 +881,21 @@ public class AlunoResource {
             @PathParam("id") long alunoId,
             @PathParam("cursoId") long cursoId) {
 
-        Aluno aluno = Aluno.findById(alunoId);
-        if (aluno == null) {
+        if (!matriculas.alunoExiste(alunoId)) {
+            matriculaMetrics.desmatricularNaoEncontrado();
             return Response.status(404).entity("Aluno não encontrado").build();
         }
 
-        Curso curso = Curso.findById(cursoId);
-        if (curso == null) {
+        if (!matriculas.cursoExiste(cursoId)) {
+            matriculaMetrics.desmatricularNaoEncontrado();
             return Response.status(404).entity("Curso não encontrado").build();
         }
 
-        if (!aluno.cursos.contains(curso)) {
+        if (!matriculas.desmatricular(alunoId, cursoId)) {
+            matriculaMetrics.desmatricularNaoEncontrado();
             return Response.status(404).entity("Aluno não está matriculado neste curso").build();
         }
 
-        aluno.cursos.remove(curso);
         return Response.noContent().build();
     }
 }
@@ -0,0 +1,16 @@
+package org.acme;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.Path;
+
+/**
+ * Os endpoints de {@link AlunoResource} executados em virtual threads, ativados com
+ * {@code virtual-threads.alunos.enabled=true} (propriedade de build).
+ */
+@Path("/alunos")
+@RunOnVirtualThread
+@PoolGuard
+@IfBuildProperty(name = "virtual-threads.alunos.enabled", stringValue = "true")
+public class AlunoVirtualThreadResource extends AlunoResource {
+}
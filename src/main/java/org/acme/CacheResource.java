@@ -0,0 +1,41 @@
+package org.acme;
+
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+
+import java.util.Map;
+
+@Path("/cache")
+public class CacheResource {
+
+    @Inject
+    SecondLevelCache cache;
+
+    @GET
+    @Operation(
+            summary = "Retorna as estatísticas do cache de segundo nível",
+            description = "Retorna, por região do cache (entidades e consultas), os acertos, falhas, inserções "
+                    + "e o número de elementos em memória"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = Map.class, type = SchemaType.ARRAY)
+            )
+    )
+    @Path("/stats")
+    @NonBlocking
+    public Response stats() {
+        return Response.ok(cache.stats()).build();
+    }
+}
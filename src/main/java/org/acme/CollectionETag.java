@@ -0,0 +1,18 @@
+package org.acme;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca listagens e buscas que recebem ETag calculada sobre a página devolvida e respondem 304, sem corpo, a um
+ * {@code If-None-Match} igual.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface CollectionETag {
+}
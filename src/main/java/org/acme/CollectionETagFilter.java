@@ -0,0 +1,48 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+/**
+ * Serializa a página devolvida uma única vez, calcula a tag sobre esses bytes e responde 304 quando ela bate com o
+ * {@code If-None-Match}. A tag muda com qualquer alteração visível na resposta, venha ela desta instância, de outra
+ * ou de uma carga direta no banco, e não custa consultas além das da própria busca.
+ */
+@Provider
+@CollectionETag
+public class CollectionETagFilter implements ContainerResponseFilter {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        if (response.getStatus() != 200 || !response.hasEntity()) {
+            return;
+        }
+        // Corpos em streaming (listagens completas) são gerados depois deste filtro: não há bytes para resumir
+        if (response.getEntity() instanceof StreamingOutput) {
+            return;
+        }
+
+        byte[] body = objectMapper.writeValueAsBytes(response.getEntity());
+        EntityTag tag = ETags.of(body);
+        response.getHeaders().putSingle(HttpHeaders.ETAG, tag);
+        if (request.getRequest().evaluatePreconditions(tag) != null) {
+            response.setStatus(304);
+            response.setEntity(null);
+        } else {
+            response.setEntity(body, response.getEntityAnnotations(), MediaType.APPLICATION_JSON_TYPE);
+        }
+    }
+}
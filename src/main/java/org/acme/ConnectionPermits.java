@@ -0,0 +1,41 @@
+package org.acme;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permissões de execução para os endpoints {@link PoolGuard}: no máximo {@code virtual-threads.max-concurrent}
+ * requisições ao mesmo tempo, nunca mais que o tamanho do pool de conexões. Quem não consegue uma permissão
+ * dentro de {@code virtual-threads.acquire-timeout} recebe 503 em vez de esperar por uma conexão.
+ */
+@ApplicationScoped
+public class ConnectionPermits {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    ConnectionPermits(
+            @ConfigProperty(name = "virtual-threads.max-concurrent") int maxConcurrent,
+            @ConfigProperty(name = "quarkus.datasource.jdbc.max-size") int poolSize,
+            @ConfigProperty(name = "virtual-threads.acquire-timeout", defaultValue = "5s") Duration timeout
+    ) {
+        this.permits = new Semaphore(Math.max(1, Math.min(maxConcurrent, poolSize)), true);
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public boolean acquire() throws InterruptedException {
+        return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+}
@@ -1,21 +1,39 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@NamedEntityGraph(name = "Curso.professor", attributeNodes = @NamedAttributeNode("professor"))
+@NamedEntityGraph(
+        name = "Curso.alunos",
+        attributeNodes = {@NamedAttributeNode("professor"), @NamedAttributeNode("alunos")}
+)
 public class Curso extends PanacheEntity {
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Version
+    @ColumnDefault("0")
+    public long version;
+
     @NotNull
     @Size(min = 2, max = 100, message = "O nome deve ter entre 2 a 100 letras")
     public String nome;
@@ -33,6 +51,7 @@ public class Curso extends PanacheEntity {
     public Professor professor;
 
     @ManyToMany(mappedBy = "cursos")
+    @BatchSize(size = 100)
     public Set<Aluno> alunos = new HashSet<>();
 
     public Curso() {
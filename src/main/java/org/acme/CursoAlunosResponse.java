@@ -0,0 +1,110 @@
+package org.acme;
+
+import jakarta.ws.rs.core.UriInfo;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Página dos alunos matriculados em um curso ({@code GET /cursos/{id}/alunos}). Cada aluno vem no mesmo
+ * formato resumido usado dentro de {@link CursoRepresentation}, sem os cursos dele.
+ */
+public class CursoAlunosResponse {
+
+    public long cursoId;
+    public List<Map<String, Object>> alunos;
+    public SearchAlunoResponse.PaginationMetadata pagination;
+    public Map<String, String> _links;
+
+    public CursoAlunosResponse() {
+    }
+
+    public static CursoAlunosResponse from(
+            long cursoId, List<Aluno> alunos, UriInfo uriInfo, String query, String sort, String direction,
+            int page, int size, Long totalElements, Long totalPages, boolean hasNext, String countMode
+    ) {
+        CursoAlunosResponse response = create(cursoId, alunos, uriInfo, size, totalElements, totalPages);
+        response.pagination.page = page;
+
+        String baseUrl = baseUrl(uriInfo, cursoId);
+        String params = params(query, sort, direction, size, countMode);
+
+        response._links.put("self", baseUrl + "?" + params + "&page=" + page);
+        response._links.put("first", baseUrl + "?" + params + "&page=1");
+        if (totalPages != null) {
+            response._links.put("last", baseUrl + "?" + params + "&page=" + totalPages);
+        }
+        if (page > 1) {
+            response._links.put("prev", baseUrl + "?" + params + "&page=" + (page - 1));
+        }
+        if (hasNext) {
+            response._links.put("next", baseUrl + "?" + params + "&page=" + (page + 1));
+        }
+
+        return response;
+    }
+
+    public static CursoAlunosResponse fromCursor(
+            long cursoId, List<Aluno> alunos, UriInfo uriInfo, String query, String sort, String direction, int size,
+            Long totalElements, Long totalPages, String countMode, String cursor, String nextCursor, String prevCursor
+    ) {
+        CursoAlunosResponse response = create(cursoId, alunos, uriInfo, size, totalElements, totalPages);
+        response.pagination.cursor = cursor;
+
+        String baseUrl = baseUrl(uriInfo, cursoId);
+        String params = params(query, sort, direction, size, countMode);
+
+        response._links.put("self", baseUrl + "?" + params + "&cursor=" + cursor);
+        response._links.put("first", baseUrl + "?" + params + "&cursor=");
+        if (prevCursor != null) {
+            response._links.put("prev", baseUrl + "?" + params + "&cursor=" + prevCursor);
+        }
+        if (nextCursor != null) {
+            response._links.put("next", baseUrl + "?" + params + "&cursor=" + nextCursor);
+        }
+
+        return response;
+    }
+
+    private static CursoAlunosResponse create(
+            long cursoId, List<Aluno> alunos, UriInfo uriInfo, int size, Long totalElements, Long totalPages
+    ) {
+        CursoAlunosResponse response = new CursoAlunosResponse();
+        URI baseUri = uriInfo.getBaseUri();
+
+        response.cursoId = cursoId;
+        response.alunos = alunos.stream()
+                .map(aluno -> CursoRepresentation.alunoMap(baseUri, aluno.id, aluno.nome, aluno.email, aluno.sexo))
+                .toList();
+
+        response.pagination = new SearchAlunoResponse.PaginationMetadata();
+        response.pagination.size = size;
+        response.pagination.totalElements = totalElements;
+        response.pagination.totalPages = totalPages;
+
+        response._links = new HashMap<>();
+        response._links.put("curso", baseUri + "cursos/" + cursoId);
+
+        return response;
+    }
+
+    private static String baseUrl(UriInfo uriInfo, long cursoId) {
+        return uriInfo.getBaseUri() + "cursos/" + cursoId + "/alunos";
+    }
+
+    private static String params(String query, String sort, String direction, int size, String countMode) {
+        StringBuilder params = new StringBuilder();
+        if (query != null && !query.isBlank()) {
+            params.append("q=").append(query).append("&");
+        }
+        params.append("sort=").append(sort)
+                .append("&direction=").append(direction)
+                .append("&size=").append(size);
+        if (countMode != null && !"exact".equalsIgnoreCase(countMode)) {
+            params.append("&count=").append(countMode);
+        }
+        return params.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.ws.rs.core.UriInfo;
 
 import java.net.URI;
@@ -13,7 +14,7 @@ public class CursoRepresentation {
     public long id;
     public String nome;
     public String descricao;
-    public int cargaHoraria;
+    public Integer cargaHoraria;
     public Map<String, String> _links;
 
     public List<Map<String, Object>> alunos;
@@ -23,6 +24,14 @@ public class CursoRepresentation {
     public CursoRepresentation() {
     }
 
+    /**
+     * Representação montada a partir de {@code fields}/{@code embed}: os campos não pedidos ficam de fora do JSON
+     * em vez de virem como {@code null}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Partial extends CursoRepresentation {
+    }
+
     public static CursoRepresentation from(Curso curso, UriInfo uriInfo) {
         CursoRepresentation rep = new CursoRepresentation();
         rep.id = curso.id;
@@ -32,26 +41,54 @@ public class CursoRepresentation {
 
         rep.professor = curso.professor;
 
-        rep._links = new HashMap<>();
         URI baseUri = uriInfo.getBaseUri();
-
-        rep._links.put("self", baseUri + "cursos/" + curso.id);
-        rep._links.put("all", baseUri + "cursos");
-        rep._links.put("delete", baseUri + "cursos/" + curso.id);
-        rep._links.put("update", baseUri + "cursos/" + curso.id);
-        rep._links.put("search", baseUri + "cursos/search");
+        rep._links = links(baseUri, curso.id);
 
         rep.alunos = curso.alunos.stream()
-                .map(aluno -> {
-                    Map<String, Object> alunoMap = new HashMap<>();
-                    alunoMap.put("id", aluno.id);
-                    alunoMap.put("nome", aluno.nome);
-                    alunoMap.put("email", aluno.email);
-                    alunoMap.put("sexo", aluno.sexo);
-                    alunoMap.put("_link", baseUri + "alunos/" + aluno.id);
-                    return alunoMap;
-                }).collect(Collectors.toList());
+                .map(aluno -> alunoMap(baseUri, aluno.id, aluno.nome, aluno.email, aluno.sexo))
+                .collect(Collectors.toList());
+
+        return rep;
+    }
 
+    /**
+     * Representação parcial a partir de uma linha de projeção: só os campos de {@code selection} são preenchidos.
+     *
+     * @param alunos alunos já no formato embutido, ou {@code null} quando não foram pedidos em {@code embed}
+     * @param professor coordenador, ou {@code null} quando não foi pedido em {@code embed}
+     */
+    public static CursoRepresentation from(
+            Map<String, Object> row, FieldSelection selection, List<Map<String, Object>> alunos, Professor professor,
+            UriInfo uriInfo
+    ) {
+        CursoRepresentation rep = new Partial();
+        rep.id = (Long) row.get("id");
+        rep.nome = selection.has("nome") ? (String) row.get("nome") : null;
+        rep.descricao = selection.has("descricao") ? (String) row.get("descricao") : null;
+        rep.cargaHoraria = selection.has("cargaHoraria") ? (Integer) row.get("cargaHoraria") : null;
+        rep._links = selection.has(FieldSelection.LINKS) ? links(uriInfo.getBaseUri(), rep.id) : null;
+        rep.alunos = alunos;
+        rep.professor = professor;
         return rep;
     }
+
+    static Map<String, Object> alunoMap(URI baseUri, Long id, String nome, String email, Aluno.Sexo sexo) {
+        Map<String, Object> alunoMap = new HashMap<>();
+        alunoMap.put("id", id);
+        alunoMap.put("nome", nome);
+        alunoMap.put("email", email);
+        alunoMap.put("sexo", sexo);
+        alunoMap.put("_link", baseUri + "alunos/" + id);
+        return alunoMap;
+    }
+
+    private static Map<String, String> links(URI baseUri, long id) {
+        Map<String, String> links = new HashMap<>();
+        links.put("self", baseUri + "cursos/" + id);
+        links.put("all", baseUri + "cursos");
+        links.put("delete", baseUri + "cursos/" + id);
+        links.put("update", baseUri + "cursos/" + id);
+        links.put("search", baseUri + "cursos/search");
+        return links;
+    }
 }
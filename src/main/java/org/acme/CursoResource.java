@@ -1,11 +1,20 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -16,24 +25,67 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Path("/cursos")
+@UnlessBuildProperty(name = "virtual-threads.cursos.enabled", stringValue = "true", enableIfMissing = true)
 public class CursoResource {
 
+    private static final List<String> FIELDS = List.of("nome", "descricao", "cargaHoraria");
+    private static final Set<String> EMBEDS = Set.of("professor", "alunos");
+
+    /**
+     * Campos de ordenação aceitos -> coluna do {@code order by} e do seek dos cursores.
+     */
+    static final Map<String, KeysetQuery.SortKey> SORTS = Map.of(
+            "id", KeysetQuery.SortKey.of("id"),
+            "nome", KeysetQuery.SortKey.of("nome"),
+            "descricao", KeysetQuery.SortKey.of("descricao"),
+            "cargaHoraria", KeysetQuery.SortKey.of("cargaHoraria"),
+            "professor", KeysetQuery.SortKey.nullable("professor.id"));
+
     @Context
     UriInfo uriInfo;
 
+    @Context
+    Request request;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    SearchCountCache countCache;
+
+    @Inject
+    SearchIndex searchIndex;
+
+    @Inject
+    Projections projections;
+
+    @Inject
+    ExportService exports;
+
+    @Inject
+    MatriculaService matriculas;
+
+    @Inject
+    MatriculaIndex matriculaIndex;
+
+    @Inject
+    CursoStats cursoStats;
+
+    @Inject
+    MatriculaMetrics matriculaMetrics;
+
     private CursoRepresentation rep(Curso c){
         return CursoRepresentation.from(c, uriInfo);
     }
 
-    private List<CursoRepresentation> repList(List<Curso> cursos){
-        return cursos.stream().map(this::rep).collect(Collectors.toList());
-    }
-
     @GET
     @Operation(
             summary = "Retorna todos os cursos",
@@ -47,8 +99,33 @@ public class CursoResource {
                     schema = @Schema(implementation = Curso.class, type = SchemaType.ARRAY)
             )
     )
-    public Response getAll(){
-        return Response.ok(repList(Curso.listAll())).build();
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getAll(
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, descricao, cargaHoraria e _links); o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Associações embutidas em cada item, separadas por vírgula (professor e alunos)")
+            @QueryParam("embed") String embed
+    ) {
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, embed, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        if (selection != null) {
+            return Response.ok(JsonStreaming.array(objectMapper,
+                    lastId -> project(projections.select("Curso", columns(selection, null), "id > :after order by id",
+                            Parameters.with("after", lastId), 0, JsonStreaming.CHUNK_SIZE), selection),
+                    rep -> rep.id, rep -> rep)).build();
+        }
+
+        return Response.ok(JsonStreaming.array(objectMapper, this::chunkAfter, this::rep)).build();
+    }
+
+    private List<Curso> chunkAfter(long lastId) {
+        List<Curso> chunk = withProfessor(Curso.<Curso>find("id > ?1", Sort.by("id"), lastId)).page(0, JsonStreaming.CHUNK_SIZE).list();
+        return FetchPlans.initialize(Curso.getEntityManager(), Curso.class, "Curso.alunos", chunk);
     }
 
     @GET
@@ -73,6 +150,8 @@ public class CursoResource {
             )
     )
     @Path("{id}")
+    // Curso, professor, tag dos alunos e coleção de alunos
+    @SqlBudget(statements = 4)
     public Response getById(
             @Parameter(description = "Id do curso a ser pesquisado", required = true)
             @PathParam("id") long id
@@ -81,7 +160,25 @@ public class CursoResource {
         if (entity == null) {
             return Response.status(404).build();
         }
-        return Response.ok(rep(entity)).build();
+
+        EntityTag tag = etag(entity);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).build();
+        }
+        return Response.ok(rep(entity)).tag(tag).build();
+    }
+
+    private EntityTag etag(Curso curso) {
+        // Professor e alunos embutidos na representação entram na tag pelas versões deles
+        List<Object[]> alunos = Curso.getEntityManager()
+                .createQuery("select a.id, a.version from Aluno a join a.cursos c where c.id = :id", Object[].class)
+                .setParameter("id", curso.id)
+                .getResultList();
+        return ETags.of(curso.id, curso.version,
+                curso.professor == null ? 0 : curso.professor.id,
+                curso.professor == null ? 0 : curso.professor.version,
+                ETags.digest(alunos));
     }
 
     @GET
@@ -106,6 +203,7 @@ public class CursoResource {
             )
     )
     @Path("/search")
+    @CollectionETag
     public Response search(
             @Parameter(description = "Query de busca por nome ou descricao")
             @QueryParam("q") String q,
@@ -114,38 +212,267 @@ public class CursoResource {
             @Parameter(description = "Direção da ordenação ascendente/descendente")
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @QueryParam("page") @DefaultValue("1") int page,
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Parameter(description = "Cursor opaco para paginação por keyset (vazio inicia na primeira página)")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Modo de contagem do total: exact, estimate (cache de curta duração) ou none")
+            @QueryParam("count") @DefaultValue("exact") String count,
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, descricao, cargaHoraria e _links); o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Associações embutidas em cada item, separadas por vírgula (professor e alunos)")
+            @QueryParam("embed") String embed
     ) {
-        Set<String> allowed = Set.of("id", "nome", "descricao", "cargaHoraria", "professor");
-        if (!allowed.contains(sort)) {
+        if (!SORTS.containsKey(sort)) {
             sort = "id";
         }
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, embed, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+        if (selection != null) {
+            return searchProjected(q, sort, direction, page, size, cursor, count, selection);
+        }
+
+        if (cursor != null) {
+            return searchByCursor(q, sort, direction, size, cursor, count);
+        }
+
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending;
+        // Desempate pelo id: sem ele linhas com o mesmo valor podem mudar de página entre uma consulta e outra
+        Sort sortObj = "id".equals(sort)
+                ? Sort.by("id", sortDirection)
+                : Sort.by(sort, sortDirection).and("id", sortDirection);
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<Curso> query = (q == null || q.isBlank())
-                ? Curso.findAll(sortObj)
-                : Curso.find("lower(nome) like ?1 or lower(descricao) like ?1",
-                sortObj,
-                "%" + q.toLowerCase() + "%");
+        List<Long> candidates = searchIndex.candidates(Curso.class, q);
+
+        PanacheQuery<Curso> query;
+        if (q == null || q.isBlank()) {
+            query = SecondLevelCache.cacheable(Curso.findAll(sortObj));
+        } else if (candidates != null) {
+            query = Curso.find("id in ?1", sortObj, candidates);
+        } else {
+            query = SecondLevelCache.cacheable(Curso.find("lower(nome) like ?1 or lower(descricao) like ?1",
+                    sortObj,
+                    SearchCountCache.likePattern(q)));
+        }
 
-        long totalElements = query.count();
-        long totalPages = (long) Math.ceil((double) totalElements / size);
+        Long totalElements = countCache.count(Curso.class, count, q,
+                candidates == null ? query::count : () -> candidates.size());
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        List<Curso> cursos;
+        boolean hasNext;
+        if (candidates != null && "id".equals(sort)) {
+            // Ids já vêm ordenados do índice: só os ids da página vão para o banco
+            int from = Math.min(effectivePage * size, candidates.size());
+            int to = Math.min(from + size, candidates.size());
+            List<Long> pageIds = "desc".equalsIgnoreCase(direction)
+                    ? candidates.reversed().subList(from, to)
+                    : candidates.subList(from, to);
+            cursos = withProfessor(Curso.find("id in ?1", sortObj, pageIds)).list();
+            hasNext = to < candidates.size();
+        } else if (totalPages == null) {
+            // Sem total: busca uma linha a mais só para saber se existe próxima página
+            int offset = effectivePage * size;
+            cursos = new ArrayList<>(withProfessor(query).range(offset, offset + size).list());
+            hasNext = cursos.size() > size;
+            if (hasNext) {
+                cursos.remove(size);
+            }
+        } else {
+            cursos = withProfessor(query).page(effectivePage, size).list();
+            hasNext = page < totalPages;
+        }
 
-        List<Curso> cursos = query.page(effectivePage, size).list();
+        FetchPlans.initialize(Curso.getEntityManager(), Curso.class, "Curso.alunos", cursos);
 
         SearchCursoResponse response = SearchCursoResponse.from(
-                cursos, uriInfo, q, sort, direction, page, size, totalElements, totalPages
+                cursos.stream().map(this::rep).toList(), uriInfo, q, sort, direction, page, size, totalElements, totalPages, hasNext, count
+        );
+
+        return Response.ok(response).build();
+    }
+
+    private Response searchByCursor(String q, String sort, String direction, int size, String cursor, String count) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Curso.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Curso> result = keyset.fetch(filter(pattern, candidates, params), params, 1, size,
+                (where, p, offset, limit) -> withProfessor(Curso.<Curso>find(where, p)).range(offset, offset + limit - 1).list(),
+                curso -> keysetValue(curso, keyset.sort), curso -> curso.id);
+        List<Curso> cursos = result.items();
+
+        FetchPlans.initialize(Curso.getEntityManager(), Curso.class, "Curso.alunos", cursos);
+
+        SearchCursoResponse response = SearchCursoResponse.fromCursor(
+                cursos.stream().map(this::rep).toList(), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
         );
 
         return Response.ok(response).build();
     }
 
+    private static PanacheQuery<Curso> withProfessor(PanacheQuery<Curso> query) {
+        return FetchPlans.apply(query, Curso.getEntityManager(), "Curso.professor");
+    }
+
+    /**
+     * Busca com {@code fields}/{@code embed}: mesma filtragem, ordenação e paginação, mas a página vem de uma
+     * projeção só com as colunas pedidas, sem carregar entidades.
+     */
+    private Response searchProjected(
+            String q, String sort, String direction, int page, int size, String cursor, String count,
+            FieldSelection selection
+    ) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Curso.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Map<String, Object>> result = keyset.fetch(filter(pattern, candidates, params), params, page, size,
+                (where, p, offset, limit) -> projections.select("Curso", columns(selection, keyset.path), where, p, offset, limit));
+
+        if (cursor == null) {
+            return Response.ok(SearchCursoResponse.from(
+                    project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, page, size,
+                    totalElements, totalPages, result.hasMore(), count
+            )).build();
+        }
+        return Response.ok(SearchCursoResponse.fromCursor(
+                project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
+        )).build();
+    }
+
+    /**
+     * Filtro do termo {@code q}: os ids do índice de trigramas ou, sem eles, o {@code like} no banco. Vazio sem termo.
+     */
+    static String filter(String pattern, List<Long> candidates, Parameters params) {
+        if (candidates != null) {
+            params.and("ids", candidates);
+            return "id in :ids";
+        }
+        if (pattern != null) {
+            params.and("q", pattern);
+            return "(lower(nome) like :q or lower(descricao) like :q)";
+        }
+        return "";
+    }
+
+    private Long total(String q, String count, String pattern, List<Long> candidates) {
+        return countCache.count(Curso.class, count, q, () -> {
+            if (pattern == null) {
+                return Curso.count();
+            }
+            return candidates != null
+                    ? candidates.size()
+                    : Curso.count("lower(nome) like ?1 or lower(descricao) like ?1", pattern);
+        });
+    }
+
+    /**
+     * Colunas da projeção: os campos pedidos e, quando houver ordenação, o valor usado nos cursores.
+     */
+    private static Map<String, String> columns(FieldSelection selection, String sortPath) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (String field : selection.columns(FIELDS)) {
+            columns.put(field, field);
+        }
+        if (sortPath != null) {
+            columns.put(Projections.SORT_KEY, sortPath);
+        }
+        return columns;
+    }
+
+    private List<CursoRepresentation> project(List<Map<String, Object>> rows, FieldSelection selection) {
+        List<Long> ids = Projections.ids(rows);
+        Map<Long, List<Object[]>> alunos = selection.embeds("alunos")
+                ? projections.children("select c.id, a.id, a.nome, a.email, a.sexo "
+                        + "from Aluno a join a.cursos c where c.id in :ids", ids)
+                : null;
+        Map<Long, List<Object[]>> professores = selection.embeds("professor")
+                ? projections.children("select c.id, p.id, p.nome, p.email, p.version "
+                        + "from Curso c join c.professor p where c.id in :ids", ids)
+                : null;
+
+        URI baseUri = uriInfo.getBaseUri();
+        return rows.stream()
+                .map(row -> {
+                    Long id = (Long) row.get("id");
+                    return CursoRepresentation.from(row, selection,
+                            alunos == null ? null : alunos.getOrDefault(id, List.of()).stream()
+                                    .map(a -> CursoRepresentation.alunoMap(baseUri, (Long) a[1], (String) a[2], (String) a[3], (Aluno.Sexo) a[4]))
+                                    .toList(),
+                            professores == null ? null : Projections.professor(professores.get(id)),
+                            uriInfo);
+                })
+                .toList();
+    }
+
+    static Object keysetValue(Curso curso, String sort) {
+        return switch (sort) {
+            case "nome" -> curso.nome;
+            case "descricao" -> curso.descricao;
+            case "cargaHoraria" -> curso.cargaHoraria;
+            case "professor" -> curso.professor == null ? null : curso.professor.id;
+            default -> curso.id;
+        };
+    }
+
+    @GET
+    @Operation(
+            summary = "Exporta todos os cursos",
+            description = "Exporta todos os cursos em NDJSON (uma linha JSON por registro) ou CSV, sem links"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = {
+                    @Content(mediaType = ExportService.NDJSON),
+                    @Content(mediaType = ExportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("/export")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String format
+    ) {
+        return exports.export(format, "cursos",
+                "select c.id, c.nome, c.descricao, c.cargaHoraria, c.professor.id from Curso c order by c.id",
+                "id", "nome", "descricao", "cargaHoraria", "professor_id");
+    }
+
     @POST
     @Operation(
             summary = "Cria um novo curso",
@@ -178,6 +505,9 @@ public class CursoResource {
     public Response insert(@Valid Curso curso){
 
         Curso.persist(curso);
+        searchIndex.put(Curso.class, curso.id, curso.nome, curso.descricao);
+        cursoStats.cursoCriado(curso.id);
+        countCache.invalidate(Curso.class);
         return Response.status(201).entity(rep(curso)).build();
     }
 
@@ -208,6 +538,9 @@ public class CursoResource {
             return Response.status(404).build();
         }
         Curso.deleteById(id);
+        searchIndex.remove(Curso.class, id);
+        matriculaIndex.cursoRemovido(id);
+        countCache.invalidate(Curso.class);
         return Response.noContent().build();
     }
 
@@ -247,6 +580,14 @@ public class CursoResource {
                     schema = @Schema(implementation = String.class)
             )
     )
+    @APIResponse(
+            responseCode = "412",
+            description = "Precondition Failed",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
     @Transactional
     @Path("{id}")
     public Response update(
@@ -258,12 +599,35 @@ public class CursoResource {
             return Response.status(404).build();
         }
 
+        // If-Match: só grava se o cliente partiu da representação atual
+        Response.ResponseBuilder preconditionFailed = request.evaluatePreconditions(etag(entity));
+        if (preconditionFailed != null) {
+            return preconditionFailed.entity("O curso foi alterado desde a última leitura").build();
+        }
+
+        Professor professor = null;
+        if (newCurso.professor != null) {
+            professor = Professor.findById(newCurso.professor.id);
+            if (professor == null) {
+                return Response.status(404).entity("Professor não encontrado").build();
+            }
+        }
+
         entity.nome = newCurso.nome;
         entity.descricao = newCurso.descricao;
         entity.cargaHoraria = newCurso.cargaHoraria;
-        entity.professor = newCurso.professor;
+        entity.professor = professor;
 
-        return Response.status(200).entity(rep(entity)).build();
+        try {
+            Curso.flush();
+        } catch (OptimisticLockException e) {
+            return Response.status(412).entity("O curso foi alterado por outra requisição").build();
+        }
+
+        countCache.invalidate(Curso.class);
+        searchIndex.put(Curso.class, id, entity.nome, entity.descricao);
+
+        return Response.status(200).entity(rep(entity)).tag(etag(entity)).build();
     }
 
     // Matricula a partir daqui
@@ -285,7 +649,7 @@ public class CursoResource {
             description = "OK",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Curso.class)
+                    schema = @Schema(implementation = MatriculaResponse.class)
             )
     )
     @APIResponse(
@@ -310,39 +674,100 @@ public class CursoResource {
             @PathParam("id") long cursoId,
             @PathParam(("alunoId")) long alunoId
     ){
-        Curso curso = Curso.findById(cursoId);
-        if (curso == null) {
+        if (!matriculas.cursoExiste(cursoId)) {
+            matriculaMetrics.matricularNaoEncontrado();
             return Response.status(404).entity("Curso não encontrado").build();
         }
 
-        Aluno aluno = Aluno.findById(alunoId);
-        if (aluno == null) {
+        if (!matriculas.alunoExiste(alunoId)) {
+            matriculaMetrics.matricularNaoEncontrado();
             return Response.status(404).entity("Aluno não encontrado").build();
         }
 
-        if(curso.alunos.contains(aluno)){
+        if (!matriculas.matricular(alunoId, cursoId)) {
+            matriculaMetrics.matricularConflito();
             return Response.status(409).entity("Aluno já está matriculado neste curso").build();
         }
 
-        aluno.cursos.add(curso);
+        return Response.status(200).entity(MatriculaResponse.from(alunoId, cursoId, uriInfo)).build();
+    }
+
+    @POST
+    @Operation(
+            summary = "Matricula vários alunos no curso",
+            description = "Matricula no curso todos os alunos cujos ids forem enviados no corpo (lista JSON) "
+                    + "e informa, por id, se foi matriculado, se já estava matriculado ou se não foi encontrado"
+    )
+    @RequestBody(
+            required = true,
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = Long.class, type = SchemaType.ARRAY)
+            )
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = MatriculaLoteResponse.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Not Found",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("{id}/alunos")
+    // Uma consulta por bloco de alunos
+    @SqlBudget(statements = SqlBudget.UNLIMITED, repeats = SqlBudget.UNLIMITED)
+    public Response matricularEmLote(
+            @PathParam("id") long cursoId,
+            List<Long> alunoIds
+    ) {
+        if (alunoIds == null || alunoIds.isEmpty()) {
+            return Response.status(400).entity("Informe ao menos um aluno").build();
+        }
 
-        // Atualiza as informações de curso para a resposta
-        curso = Curso.findById(cursoId);
+        if (!matriculas.cursoExiste(cursoId)) {
+            matriculaMetrics.matricularNaoEncontrado();
+            return Response.status(404).entity("Curso não encontrado").build();
+        }
 
-        return Response.status(200).entity(rep(curso)).build();
+        return Response.ok(matriculas.matricularEmLote(cursoId, alunoIds)).build();
     }
 
     @GET
     @Operation(
-            summary = "Retorna um curso e todos os seus alunos",
-            description = "Retorna um curso e todos os seus alunos no formato JSON"
+            summary = "Retorna os alunos matriculados no curso",
+            description = "Retorna uma página dos alunos matriculados no curso, com busca, ordenação e paginação "
+                    + "por página ou por cursor como em /alunos/search, consultando só as matrículas da tabela aluno_curso"
     )
     @APIResponse(
             responseCode = "200",
             description = "OK",
             content = @Content(
                     mediaType = "application/json",
-                    schema = @Schema(implementation = Curso.class, type = SchemaType.ARRAY)
+                    schema = @Schema(implementation = CursoAlunosResponse.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
             )
     )
     @APIResponse(
@@ -354,15 +779,191 @@ public class CursoResource {
             )
     )
     @Path("{id}/alunos")
+    @CollectionETag
     public Response listarAlunos(
-            @PathParam("id") long cursoId
+            @PathParam("id") long cursoId,
+            @Parameter(description = "Query de busca por nome ou email")
+            @QueryParam("q") String q,
+            @Parameter(description = "Campo de ordenação da lista de retorno")
+            @QueryParam("sort") @DefaultValue("id") String sort,
+            @Parameter(description = "Direção da ordenação ascendente/descendente")
+            @QueryParam("direction") @DefaultValue("asc") String direction,
+            @QueryParam("page") @DefaultValue("1") int page,
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Parameter(description = "Cursor opaco para paginação por keyset (vazio inicia na primeira página)")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Modo de contagem do total: exact ou none (estimate é tratado como exact)")
+            @QueryParam("count") @DefaultValue("exact") String count
     ){
-        Curso curso = Curso.findById(cursoId);
-        if (curso == null) {
-            return Response.status(404).build();
+        if (!matriculas.cursoExiste(cursoId)) {
+            return Response.status(404).entity("Curso não encontrado").build();
+        }
+
+        if (!AlunoResource.SORTS.containsKey(sort)) {
+            sort = "id";
+        }
+
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(AlunoResource.SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        // Só as matrículas do curso: o subselect lê aluno_curso em vez de percorrer a coleção da entidade
+        Parameters params = Parameters.with("curso", cursoId);
+        String pattern = SearchCountCache.likePattern(q);
+        String match = AlunoResource.filter(pattern, searchIndex.candidates(Aluno.class, q), params);
+        String filter = "id in (select a.id from Aluno a join a.cursos c where c.id = :curso)"
+                + (match.isEmpty() ? "" : " and " + match);
+
+        Long totalElements;
+        if ("none".equalsIgnoreCase(count)) {
+            totalElements = null;
+        } else if (pattern == null) {
+            totalElements = (long) matriculaIndex.countAlunos(cursoId);
+        } else {
+            totalElements = Aluno.count(filter, params);
+        }
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        KeysetQuery.Page<Aluno> result = keyset.fetch(filter, params, page, size,
+                (where, p, offset, limit) -> Aluno.<Aluno>find(where, p).range(offset, offset + limit - 1).list(),
+                aluno -> AlunoResource.keysetValue(aluno, keyset.sort), aluno -> aluno.id);
+
+        if (cursor == null) {
+            return Response.ok(CursoAlunosResponse.from(
+                    cursoId, result.items(), uriInfo, q, keyset.sort, keyset.direction, page, size,
+                    totalElements, totalPages, result.hasMore(), count
+            )).build();
+        }
+        return Response.ok(CursoAlunosResponse.fromCursor(
+                cursoId, result.items(), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
+        )).build();
+    }
+
+    @GET
+    @Operation(
+            summary = "Verifica se um aluno está matriculado no curso",
+            description = "Responde 204 se o aluno estiver matriculado no curso e 404 caso contrário, "
+                    + "consultando o índice de matrículas em memória. Não acessa o banco e por isso roda no event loop, "
+                    + "sem ocupar uma thread de worker"
+    )
+    @APIResponse(
+            responseCode = "204",
+            description = "Matriculado"
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Not Found",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("{id}/alunos/{alunoId}")
+    @NonBlocking
+    public Response verificarMatricula(
+            @PathParam("id") long cursoId,
+            @PathParam("alunoId") long alunoId
+    ) {
+        if (!matriculaIndex.contains(alunoId, cursoId)) {
+            return Response.status(404).entity("Aluno não está matriculado neste curso").build();
         }
 
-        return Response.ok(rep(curso)).build();
+        return Response.noContent().build();
+    }
+
+    @GET
+    @Operation(
+            summary = "Retorna os alunos matriculados em dois cursos",
+            description = "Retorna, em ordem crescente, os ids dos alunos matriculados tanto neste curso quanto "
+                    + "no curso informado, calculados pelo índice de matrículas em memória"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = Map.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Not Found",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("{id}/alunos/comuns/{outroCursoId}")
+    public Response alunosEmComum(
+            @PathParam("id") long cursoId,
+            @PathParam("outroCursoId") long outroCursoId
+    ) {
+        if (!matriculas.cursoExiste(cursoId) || !matriculas.cursoExiste(outroCursoId)) {
+            return Response.status(404).entity("Curso não encontrado").build();
+        }
+
+        long[] alunos = matriculaIndex.alunosEmComum(cursoId, outroCursoId);
+        return Response.ok(Map.of(
+                "cursos", List.of(cursoId, outroCursoId),
+                "total", alunos.length,
+                "alunos", alunos
+        )).build();
+    }
+
+    @GET
+    @Operation(
+            summary = "Retorna as estatísticas de matrícula do curso",
+            description = "Retorna o total de alunos matriculados no curso e a divisão por sexo, lidos de contadores "
+                    + "mantidos na mesma transação de cada matrícula e reconciliados periodicamente com o banco"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = CursoStatsResponse.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "404",
+            description = "Not Found",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("{id}/stats")
+    public Response stats(
+            @PathParam("id") long cursoId
+    ) {
+        CursoStatsResponse stats = cursoStats.curso(cursoId);
+        if (stats == null) {
+            return Response.status(404).entity("Curso não encontrado").build();
+        }
+
+        return Response.ok(stats).build();
+    }
+
+    @GET
+    @Operation(
+            summary = "Retorna as estatísticas de matrícula de todos os cursos",
+            description = "Retorna, em ordem de id, o total de alunos matriculados em cada curso e a divisão por sexo"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = CursoStatsResponse.class, type = SchemaType.ARRAY)
+            )
+    )
+    @Path("/stats")
+    public Response stats() {
+        return Response.ok(cursoStats.cursos()).build();
     }
 
     @DELETE
@@ -396,21 +997,21 @@ public class CursoResource {
             @PathParam("alunoId") long alunoId
     ) {
 
-        Curso curso = Curso.findById(cursoId);
-        if (curso == null) {
+        if (!matriculas.cursoExiste(cursoId)) {
+            matriculaMetrics.desmatricularNaoEncontrado();
             return Response.status(404).entity("Curso não encontrado").build();
         }
 
-        Aluno aluno = Aluno.findById(alunoId);
-        if (aluno == null) {
+        if (!matriculas.alunoExiste(alunoId)) {
+            matriculaMetrics.desmatricularNaoEncontrado();
             return Response.status(404).entity("Aluno não encontrado").build();
         }
 
-        if(!curso.alunos.contains(aluno)){
+        if (!matriculas.desmatricular(alunoId, cursoId)) {
+            matriculaMetrics.desmatricularNaoEncontrado();
             return Response.status(404).entity("Aluno não está matriculado neste curso").build();
         }
 
-        aluno.cursos.remove(curso);
         return Response.noContent().build();
     }
 }
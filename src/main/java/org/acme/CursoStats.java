@@ -0,0 +1,227 @@
+package org.acme;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matriculados por curso e por {@link Aluno.Sexo} na tabela {@code curso_stats}. Cada escrita em
+ * {@code aluno_curso} atualiza o contador na mesma transação, então a leitura de um curso é uma busca pela chave
+ * primária, sem contar as matrículas.
+ *
+ * <p>A reconciliação periódica ({@code curso-stats.reconcile-every}) recalcula um curso por vez: trava as linhas
+ * do curso em {@code curso_stats} antes de contar {@code aluno_curso}. Uma transação que já alterou o contador
+ * termina antes da contagem, que a enxerga; uma que ainda não alterou espera a reconciliação e soma o seu delta
+ * por cima do valor recalculado.
+ */
+@ApplicationScoped
+public class CursoStats {
+
+    /**
+     * Tabela afetada pelos comandos nativos, para o Hibernate não esvaziar o cache de segundo nível.
+     */
+    private static final String QUERY_SPACE = "curso_stats";
+
+    private static final String DELTA_ALUNO = "update curso_stats set total = total + ? "
+            + "where curso_id = ? and sexo = (select sexo from aluno where id = ?)";
+
+    @Inject
+    EntityManager em;
+
+    void onStart(@Observes StartupEvent event) {
+        // Cursos gravados sem passar por cursoCriado (ex.: carga sintética) ganham as linhas aqui
+        reconciliar();
+    }
+
+    /**
+     * Reconciliação periódica: o scheduler só aceita métodos {@code void}.
+     */
+    @Scheduled(every = "{curso-stats.reconcile-every}", delayed = "{curso-stats.reconcile-every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reconciliarAgendado() {
+        reconciliar();
+    }
+
+    /**
+     * Recalcula os contadores a partir de {@code aluno_curso}, um curso por transação, e devolve quantos cursos
+     * divergiam.
+     */
+    public int reconciliar() {
+        QuarkusTransaction.requiringNew().run(() -> em.createNativeQuery(
+                        "insert into curso_stats (curso_id, sexo, total) "
+                                + "select c.id, s.sexo, 0 from curso c cross join (values ('MASCULINO'), ('FEMININO')) s (sexo) "
+                                + "where not exists (select 1 from curso_stats cs where cs.curso_id = c.id and cs.sexo = s.sexo)")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                .executeUpdate());
+
+        List<Long> cursos = QuarkusTransaction.requiringNew().call(() -> em
+                .createNativeQuery("select distinct curso_id from curso_stats order by curso_id", Long.class)
+                .getResultList());
+
+        int divergentes = 0;
+        for (Long cursoId : cursos) {
+            if (QuarkusTransaction.requiringNew().call(() -> reconciliar(cursoId))) {
+                divergentes++;
+            }
+        }
+        if (divergentes > 0) {
+            Log.warnf("Estatísticas de %d curso(s) divergiam de aluno_curso e foram corrigidas", divergentes);
+        }
+        return divergentes;
+    }
+
+    private boolean reconciliar(long cursoId) {
+        Map<Aluno.Sexo, Long> atuais = porSexo(rows(em
+                .createNativeQuery("select sexo, total from curso_stats where curso_id = ? for update")
+                .setParameter(1, cursoId)));
+        Map<Aluno.Sexo, Long> contados = porSexo(rows(em
+                .createNativeQuery("select a.sexo, count(*) from aluno_curso ac join aluno a on a.id = ac.aluno_id "
+                        + "where ac.curso_id = ? group by a.sexo")
+                .setParameter(1, cursoId)));
+
+        boolean divergente = false;
+        for (Aluno.Sexo sexo : Aluno.Sexo.values()) {
+            if (!atuais.get(sexo).equals(contados.get(sexo))) {
+                divergente = true;
+                em.createNativeQuery("update curso_stats set total = ? where curso_id = ? and sexo = ?")
+                        .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                        .setParameter(1, contados.get(sexo))
+                        .setParameter(2, cursoId)
+                        .setParameter(3, sexo.name())
+                        .executeUpdate();
+            }
+        }
+        return divergente;
+    }
+
+    /**
+     * Estatísticas do curso, ou {@code null} se o curso não existe.
+     */
+    public CursoStatsResponse curso(long cursoId) {
+        List<Object[]> rows = rows(em
+                .createNativeQuery("select sexo, total from curso_stats where curso_id = ?")
+                .setParameter(1, cursoId));
+        return rows.isEmpty() ? null : response(cursoId, porSexo(rows));
+    }
+
+    /**
+     * Estatísticas de todos os cursos, em ordem de id.
+     */
+    public List<CursoStatsResponse> cursos() {
+        List<CursoStatsResponse> result = new ArrayList<>();
+        for (Object[] row : rows(em.createNativeQuery("select curso_id, sexo, total from curso_stats order by curso_id"))) {
+            long cursoId = ((Number) row[0]).longValue();
+            if (result.isEmpty() || result.get(result.size() - 1).cursoId != cursoId) {
+                result.add(response(cursoId, porSexo(List.of())));
+            }
+            CursoStatsResponse stats = result.get(result.size() - 1);
+            long total = ((Number) row[2]).longValue();
+            stats.porSexo.put(Aluno.Sexo.valueOf((String) row[1]), total);
+            stats.total += total;
+        }
+        return result;
+    }
+
+    public void cursoCriado(long cursoId) {
+        // O insert do curso precisa chegar ao banco antes, por causa da chave estrangeira
+        em.flush();
+        for (Aluno.Sexo sexo : Aluno.Sexo.values()) {
+            em.createNativeQuery("insert into curso_stats (curso_id, sexo, total) values (?, ?, 0)")
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                    .setParameter(1, cursoId)
+                    .setParameter(2, sexo.name())
+                    .executeUpdate();
+        }
+    }
+
+    public void matriculado(long alunoId, long cursoId) {
+        delta(alunoId, cursoId, 1);
+    }
+
+    public void desmatriculado(long alunoId, long cursoId) {
+        delta(alunoId, cursoId, -1);
+    }
+
+    /**
+     * Soma as matrículas de um bloco gravado de uma vez: um comando por sexo, não por aluno.
+     */
+    public void matriculados(long cursoId, Map<Aluno.Sexo, Long> porSexo) {
+        porSexo.forEach((sexo, total) -> em
+                .createNativeQuery("update curso_stats set total = total + ? where curso_id = ? and sexo = ?")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                .setParameter(1, total)
+                .setParameter(2, cursoId)
+                .setParameter(3, sexo.name())
+                .executeUpdate());
+    }
+
+    /**
+     * Chamado antes de excluir o aluno, enquanto as matrículas dele ainda estão em {@code aluno_curso}.
+     */
+    public void alunoRemovido(long alunoId, Aluno.Sexo sexo) {
+        em.createNativeQuery("update curso_stats set total = total - 1 "
+                        + "where sexo = ? and curso_id in (select curso_id from aluno_curso where aluno_id = ?)")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                .setParameter(1, sexo.name())
+                .setParameter(2, alunoId)
+                .executeUpdate();
+    }
+
+    public void sexoAlterado(long alunoId, Aluno.Sexo anterior, Aluno.Sexo novo) {
+        if (anterior == novo) {
+            return;
+        }
+        em.createNativeQuery("update curso_stats set total = total + case when sexo = ? then 1 else -1 end "
+                        + "where sexo in (?, ?) and curso_id in (select curso_id from aluno_curso where aluno_id = ?)")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                .setParameter(1, novo.name())
+                .setParameter(2, anterior.name())
+                .setParameter(3, novo.name())
+                .setParameter(4, alunoId)
+                .executeUpdate();
+    }
+
+    private void delta(long alunoId, long cursoId, int delta) {
+        em.createNativeQuery(DELTA_ALUNO)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                .setParameter(1, delta)
+                .setParameter(2, cursoId)
+                .setParameter(3, alunoId)
+                .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> rows(Query query) {
+        return query.getResultList();
+    }
+
+    private static Map<Aluno.Sexo, Long> porSexo(List<Object[]> rows) {
+        Map<Aluno.Sexo, Long> result = new EnumMap<>(Aluno.Sexo.class);
+        for (Aluno.Sexo sexo : Aluno.Sexo.values()) {
+            result.put(sexo, 0L);
+        }
+        for (Object[] row : rows) {
+            result.put(Aluno.Sexo.valueOf((String) row[0]), ((Number) row[1]).longValue());
+        }
+        return result;
+    }
+
+    private static CursoStatsResponse response(long cursoId, Map<Aluno.Sexo, Long> porSexo) {
+        CursoStatsResponse response = new CursoStatsResponse(cursoId);
+        response.porSexo.putAll(porSexo);
+        response.total = porSexo.values().stream().mapToLong(Long::longValue).sum();
+        return response;
+    }
+}
@@ -0,0 +1,18 @@
+package org.acme;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class CursoStatsResponse {
+
+    public long cursoId;
+    public long total;
+    public Map<Aluno.Sexo, Long> porSexo = new EnumMap<>(Aluno.Sexo.class);
+
+    public CursoStatsResponse() {
+    }
+
+    public CursoStatsResponse(long cursoId) {
+        this.cursoId = cursoId;
+    }
+}
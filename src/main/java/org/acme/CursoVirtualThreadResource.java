@@ -0,0 +1,16 @@
+package org.acme;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.Path;
+
+/**
+ * Os endpoints de {@link CursoResource} executados em virtual threads, ativados com
+ * {@code virtual-threads.cursos.enabled=true} (propriedade de build).
+ */
+@Path("/cursos")
+@RunOnVirtualThread
+@PoolGuard
+@IfBuildProperty(name = "virtual-threads.cursos.enabled", stringValue = "true")
+public class CursoVirtualThreadResource extends CursoResource {
+}
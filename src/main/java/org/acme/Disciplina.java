@@ -1,16 +1,29 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@Cacheable
+@NamedEntityGraph(name = "Disciplina.professor", attributeNodes = @NamedAttributeNode("professor"))
 public class Disciplina extends PanacheEntity {
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Version
+    @ColumnDefault("0")
+    public long version;
+
     @NotNull
     @Size(min = 2, max = 100, message = "O nome deve ter entre 2 a 100 letras")
     public String nome;
@@ -1,5 +1,6 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.ws.rs.core.UriInfo;
 
 import java.net.URI;
@@ -11,7 +12,7 @@ public class DisciplinaRepresentation {
     public long id;
     public String nome;
     public String descricao;
-    public int cargaHoraria;
+    public Integer cargaHoraria;
     public Map<String, String> _links;
 
     public Professor professor;
@@ -19,6 +20,14 @@ public class DisciplinaRepresentation {
     public DisciplinaRepresentation() {
     }
 
+    /**
+     * Representação montada a partir de {@code fields}/{@code embed}: os campos não pedidos ficam de fora do JSON
+     * em vez de virem como {@code null}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Partial extends DisciplinaRepresentation {
+    }
+
     public static DisciplinaRepresentation from(Disciplina disciplina, UriInfo uriInfo) {
         DisciplinaRepresentation rep = new DisciplinaRepresentation();
         rep.id = disciplina.id;
@@ -28,15 +37,36 @@ public class DisciplinaRepresentation {
 
         rep.professor = disciplina.professor;
 
-        rep._links = new HashMap<>();
-        URI baseUri = uriInfo.getBaseUri();
+        rep._links = links(uriInfo.getBaseUri(), disciplina.id);
 
-        rep._links.put("self", baseUri + "disciplinas/" + disciplina.id);
-        rep._links.put("all", baseUri + "disciplinas");
-        rep._links.put("delete", baseUri + "disciplinas/" + disciplina.id);
-        rep._links.put("update", baseUri + "disciplinas/" + disciplina.id);
-        rep._links.put("search", baseUri + "disciplinas/search");
+        return rep;
+    }
 
+    /**
+     * Representação parcial a partir de uma linha de projeção: só os campos de {@code selection} são preenchidos.
+     *
+     * @param professor professor da disciplina, ou {@code null} quando não foi pedido em {@code embed}
+     */
+    public static DisciplinaRepresentation from(
+            Map<String, Object> row, FieldSelection selection, Professor professor, UriInfo uriInfo
+    ) {
+        DisciplinaRepresentation rep = new Partial();
+        rep.id = (Long) row.get("id");
+        rep.nome = selection.has("nome") ? (String) row.get("nome") : null;
+        rep.descricao = selection.has("descricao") ? (String) row.get("descricao") : null;
+        rep.cargaHoraria = selection.has("cargaHoraria") ? (Integer) row.get("cargaHoraria") : null;
+        rep._links = selection.has(FieldSelection.LINKS) ? links(uriInfo.getBaseUri(), rep.id) : null;
+        rep.professor = professor;
         return rep;
     }
+
+    private static Map<String, String> links(URI baseUri, long id) {
+        Map<String, String> links = new HashMap<>();
+        links.put("self", baseUri + "disciplinas/" + id);
+        links.put("all", baseUri + "disciplinas");
+        links.put("delete", baseUri + "disciplinas/" + id);
+        links.put("update", baseUri + "disciplinas/" + id);
+        links.put("search", baseUri + "disciplinas/search");
+        return links;
+    }
 }
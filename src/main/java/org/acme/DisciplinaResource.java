@@ -1,11 +1,19 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -16,24 +24,59 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
+import java.io.InputStream;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Path("/disciplinas")
+@UnlessBuildProperty(name = "virtual-threads.disciplinas.enabled", stringValue = "true", enableIfMissing = true)
 public class DisciplinaResource {
 
+    private static final List<String> FIELDS = List.of("nome", "descricao", "cargaHoraria");
+    private static final Set<String> EMBEDS = Set.of("professor");
+
+    /**
+     * Campos de ordenação aceitos -> coluna do {@code order by} e do seek dos cursores.
+     */
+    static final Map<String, KeysetQuery.SortKey> SORTS = Map.of(
+            "id", KeysetQuery.SortKey.of("id"),
+            "nome", KeysetQuery.SortKey.of("nome"),
+            "descricao", KeysetQuery.SortKey.of("descricao"),
+            "cargaHoraria", KeysetQuery.SortKey.of("cargaHoraria"),
+            "professor", KeysetQuery.SortKey.nullable("professor.id"));
+
     @Context
     UriInfo uriInfo;
 
+    @Context
+    Request request;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    SearchCountCache countCache;
+
+    @Inject
+    SearchIndex searchIndex;
+
+    @Inject
+    Projections projections;
+
+    @Inject
+    ExportService exports;
+
+    @Inject
+    ImportService imports;
+
     private DisciplinaRepresentation rep(Disciplina d){
         return DisciplinaRepresentation.from(d, uriInfo);
     }
 
-    private List<DisciplinaRepresentation> repList(List<Disciplina> disciplinas){
-        return disciplinas.stream().map(this::rep).collect(Collectors.toList());
-    }
-
     @GET
     @Operation(
             summary = "Retorna todas as disciplinas",
@@ -47,8 +90,32 @@ public class DisciplinaResource {
                     schema = @Schema(implementation = Disciplina.class, type = SchemaType.ARRAY)
             )
     )
-    public Response getAll(){
-        return Response.ok(repList(Disciplina.listAll())).build();
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getAll(
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, descricao, cargaHoraria e _links); o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Associações embutidas em cada item, separadas por vírgula (professor)")
+            @QueryParam("embed") String embed
+    ) {
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, embed, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        if (selection != null) {
+            return Response.ok(JsonStreaming.array(objectMapper,
+                    lastId -> project(projections.select("Disciplina", columns(selection, null), "id > :after order by id",
+                            Parameters.with("after", lastId), 0, JsonStreaming.CHUNK_SIZE), selection),
+                    rep -> rep.id, rep -> rep)).build();
+        }
+
+        return Response.ok(JsonStreaming.array(objectMapper, this::chunkAfter, this::rep)).build();
+    }
+
+    private List<Disciplina> chunkAfter(long lastId) {
+        return withProfessor(Disciplina.<Disciplina>find("id > ?1", Sort.by("id"), lastId)).page(0, JsonStreaming.CHUNK_SIZE).list();
     }
 
     @GET
@@ -73,6 +140,8 @@ public class DisciplinaResource {
             )
     )
     @Path("{id}")
+    // Disciplina e professor
+    @SqlBudget(statements = 2)
     public Response getById(
             @Parameter(description = "Id da disciplina a ser pesquisada", required = true)
             @PathParam("id") long id
@@ -81,7 +150,19 @@ public class DisciplinaResource {
         if (entity == null) {
             return Response.status(404).build();
         }
-        return Response.ok(rep(entity)).build();
+
+        EntityTag tag = etag(entity);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).build();
+        }
+        return Response.ok(rep(entity)).tag(tag).build();
+    }
+
+    private EntityTag etag(Disciplina disciplina) {
+        return ETags.of(disciplina.id, disciplina.version,
+                disciplina.professor == null ? 0 : disciplina.professor.id,
+                disciplina.professor == null ? 0 : disciplina.professor.version);
     }
 
     @GET
@@ -106,6 +187,7 @@ public class DisciplinaResource {
             )
     )
     @Path("/search")
+    @CollectionETag
     public Response search(
             @Parameter(description = "Query de busca por nome ou descricao")
             @QueryParam("q") String q,
@@ -114,38 +196,298 @@ public class DisciplinaResource {
             @Parameter(description = "Direção da ordenação ascendente/descendente")
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @QueryParam("page") @DefaultValue("1") int page,
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Parameter(description = "Cursor opaco para paginação por keyset (vazio inicia na primeira página)")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Modo de contagem do total: exact, estimate (cache de curta duração) ou none")
+            @QueryParam("count") @DefaultValue("exact") String count,
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, descricao, cargaHoraria e _links); o id sempre vem")
+            @QueryParam("fields") String fields,
+            @Parameter(description = "Associações embutidas em cada item, separadas por vírgula (professor)")
+            @QueryParam("embed") String embed
     ) {
-        Set<String> allowed = Set.of("id", "nome", "descricao", "cargaHoraria", "professor");
-        if (!allowed.contains(sort)) {
+        if (!SORTS.containsKey(sort)) {
             sort = "id";
         }
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, embed, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+        if (selection != null) {
+            return searchProjected(q, sort, direction, page, size, cursor, count, selection);
+        }
+
+        if (cursor != null) {
+            return searchByCursor(q, sort, direction, size, cursor, count);
+        }
+
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending;
+        // Desempate pelo id: sem ele linhas com o mesmo valor podem mudar de página entre uma consulta e outra
+        Sort sortObj = "id".equals(sort)
+                ? Sort.by("id", sortDirection)
+                : Sort.by(sort, sortDirection).and("id", sortDirection);
 
         int effectivePage = page <= 1 ? 0 : page - 1;
 
-        PanacheQuery<Disciplina> query = (q == null || q.isBlank())
-                ? Disciplina.findAll(sortObj)
-                : Disciplina.find("lower(nome) like ?1 or lower(descricao) like ?1",
-                sortObj,
-                "%" + q.toLowerCase() + "%");
+        List<Long> candidates = searchIndex.candidates(Disciplina.class, q);
 
-        long totalElements = query.count();
-        long totalPages = (long) Math.ceil((double) totalElements / size);
+        PanacheQuery<Disciplina> query;
+        if (q == null || q.isBlank()) {
+            query = SecondLevelCache.cacheable(Disciplina.findAll(sortObj));
+        } else if (candidates != null) {
+            query = Disciplina.find("id in ?1", sortObj, candidates);
+        } else {
+            query = SecondLevelCache.cacheable(Disciplina.find("lower(nome) like ?1 or lower(descricao) like ?1",
+                    sortObj,
+                    SearchCountCache.likePattern(q)));
+        }
+
+        Long totalElements = countCache.count(Disciplina.class, count, q,
+                candidates == null ? query::count : () -> candidates.size());
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
 
-        List<Disciplina> disciplinas = query.page(effectivePage, size).list();
+        List<Disciplina> disciplinas;
+        boolean hasNext;
+        if (candidates != null && "id".equals(sort)) {
+            // Ids já vêm ordenados do índice: só os ids da página vão para o banco
+            int from = Math.min(effectivePage * size, candidates.size());
+            int to = Math.min(from + size, candidates.size());
+            List<Long> pageIds = "desc".equalsIgnoreCase(direction)
+                    ? candidates.reversed().subList(from, to)
+                    : candidates.subList(from, to);
+            disciplinas = withProfessor(Disciplina.find("id in ?1", sortObj, pageIds)).list();
+            hasNext = to < candidates.size();
+        } else if (totalPages == null) {
+            // Sem total: busca uma linha a mais só para saber se existe próxima página
+            int offset = effectivePage * size;
+            disciplinas = new ArrayList<>(withProfessor(query).range(offset, offset + size).list());
+            hasNext = disciplinas.size() > size;
+            if (hasNext) {
+                disciplinas.remove(size);
+            }
+        } else {
+            disciplinas = withProfessor(query).page(effectivePage, size).list();
+            hasNext = page < totalPages;
+        }
 
         SearchDisciplinaResponse response = SearchDisciplinaResponse.from(
-                disciplinas, uriInfo, q, sort, direction, page, size, totalElements, totalPages
+                disciplinas.stream().map(this::rep).toList(), uriInfo, q, sort, direction, page, size, totalElements, totalPages, hasNext, count
+        );
+
+        return Response.ok(response).build();
+    }
+
+    private Response searchByCursor(String q, String sort, String direction, int size, String cursor, String count) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Disciplina.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Disciplina> result = keyset.fetch(filter(pattern, candidates, params), params, 1, size,
+                (where, p, offset, limit) -> withProfessor(Disciplina.<Disciplina>find(where, p)).range(offset, offset + limit - 1).list(),
+                disciplina -> keysetValue(disciplina, keyset.sort), disciplina -> disciplina.id);
+        List<Disciplina> disciplinas = result.items();
+
+        SearchDisciplinaResponse response = SearchDisciplinaResponse.fromCursor(
+                disciplinas.stream().map(this::rep).toList(), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
         );
 
         return Response.ok(response).build();
     }
 
+    private static PanacheQuery<Disciplina> withProfessor(PanacheQuery<Disciplina> query) {
+        return FetchPlans.apply(query, Disciplina.getEntityManager(), "Disciplina.professor");
+    }
+
+    /**
+     * Busca com {@code fields}/{@code embed}: mesma filtragem, ordenação e paginação, mas a página vem de uma
+     * projeção só com as colunas pedidas, sem carregar entidades.
+     */
+    private Response searchProjected(
+            String q, String sort, String direction, int page, int size, String cursor, String count,
+            FieldSelection selection
+    ) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Disciplina.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Map<String, Object>> result = keyset.fetch(filter(pattern, candidates, params), params, page, size,
+                (where, p, offset, limit) -> projections.select("Disciplina", columns(selection, keyset.path), where, p, offset, limit));
+
+        if (cursor == null) {
+            return Response.ok(SearchDisciplinaResponse.from(
+                    project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, page, size,
+                    totalElements, totalPages, result.hasMore(), count
+            )).build();
+        }
+        return Response.ok(SearchDisciplinaResponse.fromCursor(
+                project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
+        )).build();
+    }
+
+    /**
+     * Filtro do termo {@code q}: os ids do índice de trigramas ou, sem eles, o {@code like} no banco. Vazio sem termo.
+     */
+    private static String filter(String pattern, List<Long> candidates, Parameters params) {
+        if (candidates != null) {
+            params.and("ids", candidates);
+            return "id in :ids";
+        }
+        if (pattern != null) {
+            params.and("q", pattern);
+            return "(lower(nome) like :q or lower(descricao) like :q)";
+        }
+        return "";
+    }
+
+    private Long total(String q, String count, String pattern, List<Long> candidates) {
+        return countCache.count(Disciplina.class, count, q, () -> {
+            if (pattern == null) {
+                return Disciplina.count();
+            }
+            return candidates != null
+                    ? candidates.size()
+                    : Disciplina.count("lower(nome) like ?1 or lower(descricao) like ?1", pattern);
+        });
+    }
+
+    /**
+     * Colunas da projeção: os campos pedidos e, quando houver ordenação, o valor usado nos cursores.
+     */
+    private static Map<String, String> columns(FieldSelection selection, String sortPath) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (String field : selection.columns(FIELDS)) {
+            columns.put(field, field);
+        }
+        if (sortPath != null) {
+            columns.put(Projections.SORT_KEY, sortPath);
+        }
+        return columns;
+    }
+
+    private List<DisciplinaRepresentation> project(List<Map<String, Object>> rows, FieldSelection selection) {
+        Map<Long, List<Object[]>> professores = selection.embeds("professor")
+                ? projections.children("select d.id, p.id, p.nome, p.email, p.version "
+                        + "from Disciplina d join d.professor p where d.id in :ids", Projections.ids(rows))
+                : null;
+
+        return rows.stream()
+                .map(row -> DisciplinaRepresentation.from(row, selection,
+                        professores == null ? null : Projections.professor(professores.get((Long) row.get("id"))),
+                        uriInfo))
+                .toList();
+    }
+
+    private static Object keysetValue(Disciplina disciplina, String sort) {
+        return switch (sort) {
+            case "nome" -> disciplina.nome;
+            case "descricao" -> disciplina.descricao;
+            case "cargaHoraria" -> disciplina.cargaHoraria;
+            case "professor" -> disciplina.professor == null ? null : disciplina.professor.id;
+            default -> disciplina.id;
+        };
+    }
+
+    @GET
+    @Operation(
+            summary = "Exporta todos as disciplinas",
+            description = "Exporta todos as disciplinas em NDJSON (uma linha JSON por registro) ou CSV, sem links"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = {
+                    @Content(mediaType = ExportService.NDJSON),
+                    @Content(mediaType = ExportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("/export")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String format
+    ) {
+        return exports.export(format, "disciplinas",
+                "select d.id, d.nome, d.descricao, d.cargaHoraria, d.professor.id from Disciplina d order by d.id",
+                "id", "nome", "descricao", "cargaHoraria", "professor_id");
+    }
+
+    @POST
+    @Operation(
+            summary = "Importa disciplinas em massa",
+            description = "Importa disciplinas de um corpo NDJSON (um objeto JSON por linha) ou CSV (cabeçalho nome,descricao,cargaHoraria,professor_id), "
+                    + "validando cada registro e devolvendo o resumo das linhas rejeitadas"
+    )
+    @RequestBody(
+            required = true,
+            content = {
+                    @Content(mediaType = ImportService.NDJSON),
+                    @Content(mediaType = ImportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ImportResult.class)
+            )
+    )
+    @Path("/import")
+    @Consumes({ImportService.NDJSON, ImportService.CSV})
+    @Produces(MediaType.APPLICATION_JSON)
+    // Sequência e inserts em blocos: o número de comandos cresce com o arquivo
+    @SqlBudget(statements = SqlBudget.UNLIMITED, repeats = SqlBudget.UNLIMITED)
+    public Response importar(
+            @HeaderParam("Content-Type") String contentType,
+            InputStream body
+    ) {
+        ImportResult result = imports.importar(body, contentType, Disciplina.class,
+                "insert into disciplina (id, nome, descricao, cargaHoraria, professor_id) values (?, ?, ?, ?, ?)",
+                (insert, disciplina) -> {
+                    insert.setString(2, disciplina.nome);
+                    insert.setString(3, disciplina.descricao);
+                    insert.setInt(4, disciplina.cargaHoraria);
+                    if (disciplina.professor == null || disciplina.professor.id == null) {
+                        insert.setNull(5, Types.BIGINT);
+                    } else {
+                        insert.setLong(5, disciplina.professor.id);
+                    }
+                },
+                disciplina -> searchIndex.put(Disciplina.class, disciplina.id, disciplina.nome, disciplina.descricao));
+        countCache.invalidate(Disciplina.class);
+        return Response.ok(result).build();
+    }
+
     @POST
     @Operation(
             summary = "Cria uma nova disciplina",
@@ -178,6 +520,8 @@ public class DisciplinaResource {
     public Response insert(@Valid Disciplina disciplina){
 
         Disciplina.persist(disciplina);
+        searchIndex.put(Disciplina.class, disciplina.id, disciplina.nome, disciplina.descricao);
+        countCache.invalidate(Disciplina.class);
         return Response.status(201).entity(rep(disciplina)).build();
     }
 
@@ -208,6 +552,8 @@ public class DisciplinaResource {
             return Response.status(404).build();
         }
         Disciplina.deleteById(id);
+        searchIndex.remove(Disciplina.class, id);
+        countCache.invalidate(Disciplina.class);
         return Response.noContent().build();
     }
 
@@ -247,6 +593,14 @@ public class DisciplinaResource {
                     schema = @Schema(implementation = String.class)
             )
     )
+    @APIResponse(
+            responseCode = "412",
+            description = "Precondition Failed",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
     @Transactional
     @Path("{id}")
     public Response update(
@@ -258,11 +612,34 @@ public class DisciplinaResource {
             return Response.status(404).build();
         }
 
+        // If-Match: só grava se o cliente partiu da representação atual
+        Response.ResponseBuilder preconditionFailed = request.evaluatePreconditions(etag(entity));
+        if (preconditionFailed != null) {
+            return preconditionFailed.entity("A disciplina foi alterada desde a última leitura").build();
+        }
+
+        Professor professor = null;
+        if (newDisciplina.professor != null) {
+            professor = Professor.findById(newDisciplina.professor.id);
+            if (professor == null) {
+                return Response.status(404).entity("Professor não encontrado").build();
+            }
+        }
+
         entity.nome = newDisciplina.nome;
         entity.descricao = newDisciplina.descricao;
         entity.cargaHoraria = newDisciplina.cargaHoraria;
-        entity.professor = newDisciplina.professor;
+        entity.professor = professor;
+
+        try {
+            Disciplina.flush();
+        } catch (OptimisticLockException e) {
+            return Response.status(412).entity("A disciplina foi alterada por outra requisição").build();
+        }
+
+        countCache.invalidate(Disciplina.class);
+        searchIndex.put(Disciplina.class, id, entity.nome, entity.descricao);
 
-        return Response.status(200).entity(rep(entity)).build();
+        return Response.status(200).entity(rep(entity)).tag(etag(entity)).build();
     }
 }
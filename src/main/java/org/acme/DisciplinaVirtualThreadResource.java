@@ -0,0 +1,16 @@
+package org.acme;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.Path;
+
+/**
+ * Os endpoints de {@link DisciplinaResource} executados em virtual threads, ativados com
+ * {@code virtual-threads.disciplinas.enabled=true} (propriedade de build).
+ */
+@Path("/disciplinas")
+@RunOnVirtualThread
+@PoolGuard
+@IfBuildProperty(name = "virtual-threads.disciplinas.enabled", stringValue = "true")
+public class DisciplinaVirtualThreadResource extends DisciplinaResource {
+}
@@ -0,0 +1,61 @@
+package org.acme;
+
+import jakarta.ws.rs.core.EntityTag;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * ETags fortes das respostas. Um recurso individual usa as versões ({@code @Version}) da entidade e do que a
+ * representação dela embute; listagens e buscas usam um resumo dos bytes da página devolvida
+ * ({@link CollectionETagFilter}).
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static EntityTag of(long... parts) {
+        long hash = 0xcbf29ce484222325L;
+        for (long part : parts) {
+            hash = mix(hash ^ part);
+        }
+        return new EntityTag(Long.toHexString(hash));
+    }
+
+    /**
+     * Tag de um corpo já serializado: os primeiros 128 bits do SHA-256.
+     */
+    public static EntityTag of(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return new EntityTag(HexFormat.of().formatHex(hash, 0, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Resumo de linhas (id, versão) que independe da ordem em que vieram do banco.
+     */
+    public static long digest(List<Object[]> rows) {
+        long sum = rows.size();
+        for (Object[] row : rows) {
+            long id = ((Number) row[0]).longValue();
+            long version = ((Number) row[1]).longValue();
+            sum += mix(id * 0x9e3779b97f4a7c15L + version);
+        }
+        return sum;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
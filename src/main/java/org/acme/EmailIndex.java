@@ -0,0 +1,105 @@
+package org.acme;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Pré-filtro de emails já cadastrados de alunos e professores. Um filtro de Bloom por entidade responde, sem ir ao
+ * banco, que a maioria dos emails novos está livre; só um possível acerto consulta o índice único do banco, que
+ * continua sendo a garantia. O filtro é reconstruído do banco a cada inicialização e só recebe emails: remoções e
+ * trocas de email deixam falsos positivos, que custam uma consulta e nunca uma recusa indevida.
+ */
+@ApplicationScoped
+public class EmailIndex {
+
+    private static final Map<Class<?>, String> ENTIDADES = Map.of(Aluno.class, "Aluno", Professor.class, "Professor");
+
+    @ConfigProperty(name = "email-index.capacity", defaultValue = "2000000")
+    long capacity;
+
+    @ConfigProperty(name = "email-index.false-positive-rate", defaultValue = "0.01")
+    double falsePositiveRate;
+
+    @Inject
+    EntityManager em;
+
+    private final Map<Class<?>, BloomFilter> filters = new ConcurrentHashMap<>();
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        for (Map.Entry<Class<?>, String> entidade : ENTIDADES.entrySet()) {
+            long count = em.createQuery("select count(e) from " + entidade.getValue() + " e", Long.class).getSingleResult();
+            BloomFilter filter = new BloomFilter(Math.max(capacity, count * 2), falsePositiveRate);
+            try (Stream<String> emails = em.createQuery("select e.email from " + entidade.getValue() + " e", String.class)
+                    .getResultStream()) {
+                emails.forEach(filter::add);
+            }
+            filters.put(entidade.getKey(), filter);
+        }
+    }
+
+    /**
+     * Se o email pode ser usado por um registro de {@code type}. {@code id} é o próprio registro numa alteração,
+     * ou {@code null} numa inclusão.
+     */
+    public boolean disponivel(Class<?> type, String email, Long id) {
+        if (email == null || !filters.get(type).mightContain(email)) {
+            return true;
+        }
+        List<Long> donos = em.createQuery("select e.id from " + ENTIDADES.get(type) + " e where e.email = :email", Long.class)
+                .setParameter("email", email)
+                .getResultList();
+        return donos.isEmpty() || donos.equals(List.of(id));
+    }
+
+    /**
+     * Dos emails informados, os que já estão cadastrados. Uma única consulta, só com os possíveis acertos do filtro.
+     */
+    public Set<String> existentes(Class<?> type, Collection<String> emails) {
+        BloomFilter filter = filters.get(type);
+        List<String> suspeitos = emails.stream().filter(filter::mightContain).distinct().toList();
+        if (suspeitos.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(em.createQuery("select e.email from " + ENTIDADES.get(type) + " e where e.email in :emails", String.class)
+                .setParameter("emails", suspeitos)
+                .getResultList());
+    }
+
+    /**
+     * Chamado ao gravar um email novo. Pode ser antes do commit: se a transação desfizer, sobra só um falso positivo.
+     */
+    public void registrar(Class<?> type, String email) {
+        if (email != null) {
+            filters.get(type).add(email);
+        }
+    }
+
+    /**
+     * Se a falha ao gravar veio de um dos índices únicos de email ({@code ux_*_email}).
+     */
+    public static boolean duplicado(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName() != null
+                        && violation.getConstraintName().toLowerCase(Locale.ROOT).contains("_email");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,122 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa de tabelas em NDJSON ou CSV. As linhas vêm de um cursor do banco (projeção, sem
+ * entidades gerenciadas) e são escritas direto na resposta; como a escrita é bloqueante, um cliente lento
+ * segura a leitura do cursor em vez de acumular linhas na memória. A compressão gzip fica a cargo do
+ * servidor HTTP ({@code quarkus.http.enable-compression}).
+ */
+@ApplicationScoped
+public class ExportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "export.fetch-size", defaultValue = "1000")
+    int fetchSize;
+
+    @ConfigProperty(name = "export.transaction-timeout", defaultValue = "1h")
+    Duration transactionTimeout;
+
+    public Response export(String format, String name, String hql, String... columns) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return Response.status(400).entity("Formato inválido: use ndjson ou csv").build();
+        }
+
+        StreamingOutput body = out -> QuarkusTransaction.requiringNew()
+                .timeout((int) transactionTimeout.toSeconds())
+                .run(() -> write(out, csv, hql, columns));
+
+        return Response.ok(body, csv ? CSV : NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .build();
+    }
+
+    private void write(OutputStream out, boolean csv, String hql, String[] columns) {
+        try (Stream<Object[]> rows = em.createQuery(hql, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            if (csv) {
+                writeCsv(out, rows.iterator(), columns);
+            } else {
+                writeNdjson(out, rows.iterator(), columns);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeNdjson(OutputStream out, Iterator<Object[]> rows, String[] columns) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                json.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    json.writeFieldName(columns[i]);
+                    json.writeObject(row[i]);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+    }
+
+    private static void writeCsv(OutputStream out, Iterator<Object[]> rows, String[] columns) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(String.join(",", columns));
+            writer.write("\r\n");
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvValue(row[i]));
+                }
+                writer.write("\r\n");
+            }
+        }
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
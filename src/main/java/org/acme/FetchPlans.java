@@ -0,0 +1,42 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+/**
+ * Planos de busca (entity graphs) usados nas listagens e buscas para que o número de comandos SQL
+ * não cresça com o tamanho da página.
+ */
+public final class FetchPlans {
+
+    public static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    private FetchPlans() {
+    }
+
+    /**
+     * Aplica um graph à consulta. Use só com associações to-one quando houver paginação,
+     * senão o Hibernate pagina em memória.
+     */
+    public static <T> PanacheQuery<T> apply(PanacheQuery<T> query, EntityManager em, String graph) {
+        return query.withHint(FETCH_GRAPH, em.getEntityGraph(graph));
+    }
+
+    /**
+     * Inicializa as coleções do graph para as entidades de uma página já carregada com um único select
+     * por id, em vez de um select por entidade quando a representação percorre a coleção.
+     */
+    public static <T extends PanacheEntity> List<T> initialize(EntityManager em, Class<T> type, String graph, List<T> page) {
+        if (!page.isEmpty()) {
+            List<Long> ids = page.stream().map(entity -> entity.id).toList();
+            em.createQuery("select e from " + type.getSimpleName() + " e where e.id in :ids", type)
+                    .setParameter("ids", ids)
+                    .setHint(FETCH_GRAPH, em.getEntityGraph(graph))
+                    .getResultList();
+        }
+        return page;
+    }
+}
@@ -0,0 +1,91 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Campos ({@code fields=}) e associações ({@code embed=}) pedidos pelo cliente nas listagens e buscas.
+ * Sem nenhum dos dois parâmetros a resposta é a representação completa; com qualquer um deles a página é
+ * montada por uma consulta de projeção só com as colunas pedidas. O {@code id} sempre vem; {@code _links}
+ * só vem se estiver em {@code fields}.
+ */
+public class FieldSelection {
+
+    public static final String LINKS = "_links";
+
+    private final Set<String> fields;
+    private final Set<String> embeds;
+
+    private FieldSelection(Set<String> fields, Set<String> embeds) {
+        this.fields = fields;
+        this.embeds = embeds;
+    }
+
+    /**
+     * @param allowedFields campos escalares na ordem da representação (sem {@code id} e {@code _links})
+     * @throws IllegalArgumentException se algum campo ou associação não existir
+     */
+    public static FieldSelection parse(String fields, String embed, List<String> allowedFields, Set<String> allowedEmbeds) {
+        if (fields == null && embed == null) {
+            return null;
+        }
+
+        Set<String> selected = new LinkedHashSet<>();
+        if (fields == null) {
+            selected.addAll(allowedFields);
+            selected.add(LINKS);
+        } else {
+            for (String field : split(fields)) {
+                if (!field.equals("id") && !field.equals(LINKS) && !allowedFields.contains(field)) {
+                    throw new IllegalArgumentException("Campo inválido: " + field);
+                }
+                selected.add(field);
+            }
+        }
+
+        Set<String> embeds = new LinkedHashSet<>();
+        for (String association : split(embed)) {
+            if (!allowedEmbeds.contains(association)) {
+                throw new IllegalArgumentException("Associação inválida: " + association);
+            }
+            embeds.add(association);
+        }
+
+        return new FieldSelection(selected, embeds);
+    }
+
+    public boolean has(String field) {
+        return fields.contains(field);
+    }
+
+    public boolean embeds(String association) {
+        return embeds.contains(association);
+    }
+
+    /**
+     * Campos escalares pedidos, na ordem de {@code allowedFields}, para a lista do {@code select}.
+     */
+    public List<String> columns(List<String> allowedFields) {
+        List<String> columns = new ArrayList<>();
+        for (String field : allowedFields) {
+            if (fields.contains(field)) {
+                columns.add(field);
+            }
+        }
+        return columns;
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        if (value != null) {
+            for (String part : value.split(",")) {
+                if (!part.isBlank()) {
+                    parts.add(part.trim());
+                }
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,28 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+
+    public long recebidos;
+    public long importados;
+    public long rejeitados;
+    public List<Rejeicao> rejeicoes = new ArrayList<>();
+
+    public ImportResult() {
+    }
+
+    public static class Rejeicao {
+        public long linha;
+        public List<String> erros;
+
+        public Rejeicao() {
+        }
+
+        public Rejeicao(long linha, List<String> erros) {
+            this.linha = linha;
+            this.erros = erros;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package org.acme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Importação em massa a partir de um corpo NDJSON ou CSV lido linha a linha. Cada registro passa pelo
+ * Bean Validation; os válidos são gravados em blocos com batch JDBC e ids pré-alocados pelo mesmo gerador
+ * (sequência {@code *_seq}, otimizador pooled) que o Hibernate usa no {@code persist}.
+ */
+@ApplicationScoped
+public class ImportService {
+
+    public static final String NDJSON = ExportService.NDJSON;
+    public static final String CSV = ExportService.CSV;
+
+    @FunctionalInterface
+    public interface RowBinder<T> {
+        void bind(PreparedStatement insert, T entity) throws SQLException;
+    }
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    SecondLevelCache cache;
+
+    @Inject
+    EmailIndex emails;
+
+    @ConfigProperty(name = "import.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "import.max-rejeicoes", defaultValue = "1000")
+    int maxRejeicoes;
+
+    public <T extends PanacheEntity> ImportResult importar(
+            InputStream body, String contentType, Class<T> type, String insertSql,
+            RowBinder<T> binder, Consumer<T> afterInsert
+    ) {
+        return importar(body, contentType, type, insertSql, binder, null, afterInsert);
+    }
+
+    /**
+     * @param insertSql insert com o id como primeiro parâmetro; os demais são preenchidos por {@code binder}
+     * @param email email único do registro, verificado dentro de cada bloco e contra o {@link EmailIndex};
+     *              {@code null} quando a entidade não tem email
+     * @param afterInsert chamado dentro da transação de cada bloco, para cada entidade gravada
+     */
+    public <T extends PanacheEntity> ImportResult importar(
+            InputStream body, String contentType, Class<T> type, String insertSql,
+            RowBinder<T> binder, Function<T, String> email, Consumer<T> afterInsert
+    ) {
+        boolean csv = contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(CSV);
+        ImportResult result = new ImportResult();
+
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Long> lines = new ArrayList<>(chunkSize);
+        // Só os emails do bloco atual: entre blocos quem recusa a repetição é a consulta de rejectExisting, que já
+        // enxerga os blocos gravados, e o índice único; a memória não cresce com o tamanho do arquivo
+        Set<String> vistos = new HashSet<>(chunkSize * 2);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String[] header = csv ? parseCsvLine(reader.readLine()) : null;
+            long lineNumber = csv ? 1 : 0;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.recebidos++;
+
+                T entity;
+                try {
+                    entity = csv
+                            ? objectMapper.convertValue(csvRecord(header, parseCsvLine(line)), type)
+                            : objectMapper.readValue(line, type);
+                } catch (IOException | IllegalArgumentException e) {
+                    reject(result, lineNumber, List.of("Registro inválido: " + e.getMessage()));
+                    continue;
+                }
+
+                Set<ConstraintViolation<T>> violations = validator.validate(entity);
+                if (!violations.isEmpty()) {
+                    reject(result, lineNumber, violations.stream()
+                            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                            .sorted()
+                            .toList());
+                    continue;
+                }
+
+                if (email != null && !vistos.add(email.apply(entity))) {
+                    reject(result, lineNumber, List.of("email: repetido no arquivo"));
+                    continue;
+                }
+
+                chunk.add(entity);
+                lines.add(lineNumber);
+                if (chunk.size() == chunkSize) {
+                    flush(result, type, insertSql, binder, email, afterInsert, chunk, lines);
+                    vistos.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        flush(result, type, insertSql, binder, email, afterInsert, chunk, lines);
+        return result;
+    }
+
+    private <T extends PanacheEntity> void flush(
+            ImportResult result, Class<T> type, String insertSql, RowBinder<T> binder, Function<T, String> email,
+            Consumer<T> afterInsert, List<T> chunk, List<Long> lines
+    ) {
+        if (email != null) {
+            rejectExisting(result, type, email, chunk, lines);
+        }
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Consumer<T> registered = email == null
+                ? afterInsert
+                : afterInsert.andThen(row -> emails.registrar(type, email.apply(row)));
+        try {
+            QuarkusTransaction.requiringNew().run(() -> insert(type, insertSql, binder, registered, chunk));
+            result.importados += chunk.size();
+        } catch (RuntimeException batchFailure) {
+            // Uma linha ruim (ex.: chave estrangeira inexistente) derruba o batch: regrava linha a linha
+            for (int i = 0; i < chunk.size(); i++) {
+                List<T> single = List.of(chunk.get(i));
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> insert(type, insertSql, binder, registered, single));
+                    result.importados++;
+                } catch (RuntimeException e) {
+                    reject(result, lines.get(i), List.of("Falha ao gravar: " + rootMessage(e)));
+                }
+            }
+        }
+        // O batch JDBC não passa pelo Hibernate: consultas em cache não veriam as linhas novas
+        cache.evictQueries();
+        chunk.clear();
+        lines.clear();
+    }
+
+    /**
+     * Tira do bloco os registros cujo email já está cadastrado, com uma consulta só para os possíveis acertos do
+     * filtro. O que escapar (gravado por outra requisição depois da consulta) cai no índice único e na regravação
+     * linha a linha.
+     */
+    private <T extends PanacheEntity> void rejectExisting(
+            ImportResult result, Class<T> type, Function<T, String> email, List<T> chunk, List<Long> lines
+    ) {
+        List<String> chunkEmails = chunk.stream().map(email).toList();
+        Set<String> existentes = QuarkusTransaction.requiringNew().call(() -> emails.existentes(type, chunkEmails));
+        if (existentes.isEmpty()) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (existentes.contains(chunkEmails.get(i))) {
+                reject(result, lines.get(i), List.of("email: já cadastrado"));
+            } else {
+                chunk.set(kept, chunk.get(i));
+                lines.set(kept, lines.get(i));
+                kept++;
+            }
+        }
+        chunk.subList(kept, chunk.size()).clear();
+        lines.subList(kept, lines.size()).clear();
+    }
+
+    private <T extends PanacheEntity> void insert(
+            Class<T> type, String insertSql, RowBinder<T> binder, Consumer<T> afterInsert, List<T> rows
+    ) {
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(type)
+                .getGenerator();
+
+        for (T row : rows) {
+            row.id = (Long) generator.generate(session, row, null, EventType.INSERT);
+        }
+
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                for (T row : rows) {
+                    insert.setLong(1, row.id);
+                    binder.bind(insert, row);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+
+        rows.forEach(afterInsert);
+    }
+
+    private void reject(ImportResult result, long line, List<String> erros) {
+        result.rejeitados++;
+        if (result.rejeicoes.size() < maxRejeicoes) {
+            result.rejeicoes.add(new ImportResult.Rejeicao(line, erros));
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    /**
+     * Colunas {@code <associacao>_id} viram referências por id ({@code professor_id} -> {@code professor.id}),
+     * como no corpo JSON dos endpoints de escrita.
+     */
+    private static Map<String, Object> csvRecord(String[] header, String[] values) {
+        if (header == null || values.length != header.length) {
+            throw new IllegalArgumentException("número de colunas diferente do cabeçalho");
+        }
+        Map<String, Object> record = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String value = values[i].isEmpty() ? null : values[i];
+            if (header[i].endsWith("_id")) {
+                record.put(header[i].substring(0, header[i].length() - 3), value == null ? null : Map.of("id", value));
+            } else {
+                record.put(header[i], value);
+            }
+        }
+        return record;
+    }
+
+    static String[] parseCsvLine(String line) {
+        if (line == null) {
+            return new String[0];
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values.stream().map(String::trim).toArray(String[]::new);
+    }
+}
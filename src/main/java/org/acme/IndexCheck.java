@@ -0,0 +1,108 @@
+package org.acme;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Confere na inicialização se os índices de que as buscas, ordenações e junções dependem existem no banco
+ * (criados pelas migrações em {@code db/migration}) e avisa no log sobre os que faltam. Um índice conta se
+ * começa pelas colunas esperadas, na mesma ordem.
+ */
+@ApplicationScoped
+public class IndexCheck {
+
+    /**
+     * Tabela -> colunas iniciais de cada índice esperado.
+     */
+    static final Map<String, List<List<String>>> EXPECTED = Map.of(
+            "aluno", List.of(List.of("nome", "id"), List.of("email"), List.of("sexo", "id")),
+            "professor", List.of(List.of("nome", "id"), List.of("email")),
+            "curso", List.of(List.of("nome", "id"), List.of("descricao", "id"), List.of("cargaHoraria", "id"),
+                    List.of("coordenador_id", "id")),
+            "disciplina", List.of(List.of("nome", "id"), List.of("descricao", "id"), List.of("cargaHoraria", "id"),
+                    List.of("professor_id", "id")),
+            "aluno_curso", List.of(List.of("aluno_id", "curso_id"), List.of("curso_id", "aluno_id"))
+    );
+
+    @ConfigProperty(name = "index-check.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    void onStart(@Observes StartupEvent event) throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        List<String> missing = missing();
+        if (missing.isEmpty()) {
+            Log.debug("Todos os índices esperados existem");
+        } else {
+            Log.warnf("Índices ausentes (buscas e junções vão varrer a tabela): %s", String.join(", ", missing));
+        }
+    }
+
+    /**
+     * Índices esperados que não existem, no formato {@code tabela(coluna, ...)}.
+     */
+    public List<String> missing() throws SQLException {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, List<List<String>>> table : new TreeMap<>(EXPECTED).entrySet()) {
+                List<List<String>> existing = indexes(metaData, table.getKey());
+                for (List<String> columns : table.getValue()) {
+                    if (existing.stream().noneMatch(index -> startsWith(index, columns))) {
+                        missing.add(table.getKey() + "(" + String.join(", ", columns) + ")");
+                    }
+                }
+            }
+        }
+        return missing;
+    }
+
+    private static List<List<String>> indexes(DatabaseMetaData metaData, String table) throws SQLException {
+        Map<String, TreeMap<Short, String>> byName = new TreeMap<>();
+        for (String name : new String[]{table, table.toUpperCase(), table.toLowerCase()}) {
+            try (ResultSet rows = metaData.getIndexInfo(null, null, name, false, false)) {
+                while (rows.next()) {
+                    String index = rows.getString("INDEX_NAME");
+                    String column = rows.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        byName.computeIfAbsent(index, i -> new TreeMap<>()).put(rows.getShort("ORDINAL_POSITION"), column);
+                    }
+                }
+            }
+            if (!byName.isEmpty()) {
+                break;
+            }
+        }
+        return byName.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+    }
+
+    private static boolean startsWith(List<String> index, List<String> columns) {
+        if (index.size() < columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!index.get(i).equalsIgnoreCase(columns.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
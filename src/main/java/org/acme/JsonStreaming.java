@@ -0,0 +1,73 @@
+package org.acme;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Escreve listagens completas como um array JSON em blocos, sem montar a tabela inteira na memória.
+ * Cada bloco é lido em sua própria transação (seek por id), convertido em representações e enviado
+ * imediatamente; o contexto de persistência é descartado ao fim de cada bloco.
+ */
+public final class JsonStreaming {
+
+    public static final int CHUNK_SIZE = 500;
+
+    private JsonStreaming() {
+    }
+
+    /**
+     * @param chunkAfter devolve até {@link #CHUNK_SIZE} entidades com id maior que o informado, em ordem de id
+     * @param representation converte cada entidade na representação serializada
+     */
+    public static <T extends PanacheEntity> StreamingOutput array(
+            ObjectMapper mapper, LongFunction<List<T>> chunkAfter, Function<T, ?> representation
+    ) {
+        return array(mapper, chunkAfter, entity -> entity.id, representation);
+    }
+
+    /**
+     * Variante para blocos que não são entidades (ex.: linhas de projeção); {@code idOf} informa o id de cada item.
+     */
+    public static <T> StreamingOutput array(
+            ObjectMapper mapper, LongFunction<List<T>> chunkAfter, ToLongFunction<T> idOf, Function<T, ?> representation
+    ) {
+        return out -> {
+            try (JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+
+                long lastId = Long.MIN_VALUE;
+                int read;
+                do {
+                    long after = lastId;
+                    List<Object> reps = new ArrayList<>(CHUNK_SIZE);
+                    long[] last = {after};
+                    QuarkusTransaction.requiringNew().run(() -> {
+                        for (T item : chunkAfter.apply(after)) {
+                            reps.add(representation.apply(item));
+                            last[0] = idOf.applyAsLong(item);
+                        }
+                    });
+
+                    for (Object rep : reps) {
+                        json.writeObject(rep);
+                    }
+                    json.flush();
+
+                    read = reps.size();
+                    lastId = last[0];
+                } while (read == CHUNK_SIZE);
+
+                json.writeEndArray();
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package org.acme;
+
+import io.quarkus.panache.common.Parameters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Posição opaca usada na paginação por cursor (keyset) dos endpoints de busca.
+ * Guarda o campo de ordenação, a direção, o valor do campo e o id da última (ou primeira)
+ * linha devolvida, para que a próxima página seja buscada com um filtro "seek"
+ * em vez de OFFSET/LIMIT.
+ */
+public class KeysetCursor {
+
+    public final String sort;
+    public final String direction;
+    public final boolean backward;
+    public final Object value;
+    public final long id;
+
+    private KeysetCursor(String sort, String direction, boolean backward, Object value, long id) {
+        this.sort = sort;
+        this.direction = direction;
+        this.backward = backward;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static KeysetCursor after(String sort, String direction, Object value, long id) {
+        return new KeysetCursor(sort, direction, false, value, id);
+    }
+
+    public static KeysetCursor before(String sort, String direction, Object value, long id) {
+        return new KeysetCursor(sort, direction, true, value, id);
+    }
+
+    /**
+     * Direção efetiva da varredura: buscar a página anterior inverte a ordenação pedida.
+     */
+    public boolean ascending() {
+        return "desc".equalsIgnoreCase(direction) == backward;
+    }
+
+    /**
+     * Condição HQL que seleciona as linhas depois (ou antes) da posição do cursor.
+     *
+     * <p>Em colunas que aceitam {@code null} os nulos contam como os menores valores, como na ordenação padrão do
+     * H2: vêm primeiro na ordem crescente e por último na decrescente. Comparar com {@code null} nunca é verdadeiro,
+     * então o grupo dos nulos tem condição própria; a coluna continua sem função em volta, e o seek e o
+     * {@code order by} usam o índice {@code (coluna, id)}.
+     */
+    public String where(String path, boolean nullable) {
+        String op = ascending() ? ">" : "<";
+        String tie = "id " + op + " :cursorId";
+        if (value == null) {
+            // Dentro dos nulos só o id desempata; na ordem crescente todos os valores vêm depois deles
+            return ascending()
+                    ? "((" + path + " is null and " + tie + ") or " + path + " is not null)"
+                    : "(" + path + " is null and " + tie + ")";
+        }
+        String seek = path + " " + op + " :cursorValue or (" + path + " = :cursorValue and " + tie + ")";
+        return nullable && !ascending() ? "(" + seek + " or " + path + " is null)" : "(" + seek + ")";
+    }
+
+    /**
+     * Parâmetros da condição de {@link #where}; {@code parameter} converte o valor gravado no cursor para o tipo
+     * do campo (ex.: o nome de um enum).
+     */
+    public Parameters parameters(Parameters params, Function<Object, Object> parameter) {
+        if (value != null) {
+            params.and("cursorValue", parameter.apply(value));
+        }
+        return params.and("cursorId", id);
+    }
+
+    public static String orderBy(String path, boolean ascending) {
+        String dir = ascending ? " asc" : " desc";
+        return "order by " + path + dir + ", id" + dir;
+    }
+
+    public String encode() {
+        String raw = sort + "\n" + direction + "\n" + (backward ? "b" : "f") + "\n" + id + "\n" + (value == null ? "N" : typeOf(value) + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+
+        String[] parts = raw.split("\n", 5);
+        if (parts.length != 5 || parts[4].isEmpty()) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        try {
+            long id = Long.parseLong(parts[3]);
+            Object value = parseValue(parts[4].charAt(0), parts[4].substring(1));
+            return new KeysetCursor(parts[0], parts[1], "b".equals(parts[2]), value, id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    private static char typeOf(Object value) {
+        if (value instanceof Long) {
+            return 'L';
+        }
+        if (value instanceof Integer) {
+            return 'I';
+        }
+        return 'S';
+    }
+
+    private static Object parseValue(char type, String value) {
+        return switch (type) {
+            case 'L' -> Long.parseLong(value);
+            case 'I' -> Integer.parseInt(value);
+            case 'S' -> value;
+            case 'N' -> {
+                if (!value.isEmpty()) {
+                    throw new IllegalArgumentException("Cursor inválido");
+                }
+                yield null;
+            }
+            default -> throw new IllegalArgumentException("Cursor inválido");
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package org.acme;
+
+import io.quarkus.panache.common.Parameters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Paginação comum às buscas e às listagens de matrículas: sem cursor, página por offset; com cursor, seek por
+ * keyset ({@link KeysetCursor}). Acrescenta ao filtro do endpoint a condição de seek e o {@code order by}, busca uma
+ * linha a mais para saber se existe outra página e monta os cursores de próxima e anterior.
+ */
+public class KeysetQuery {
+
+    /**
+     * Leitura das linhas de uma página: entidades ({@code find} do Panache) ou projeções ({@link Projections}).
+     *
+     * @param where filtro, seek e {@code order by}, com os nomes de campo sem alias
+     */
+    @FunctionalInterface
+    public interface Rows<T> {
+        List<T> fetch(String where, Parameters params, int offset, int limit);
+    }
+
+    public record Page<T>(List<T> items, boolean hasMore, String next, String prev) {
+    }
+
+    /**
+     * Campo de ordenação: a coluna sem função em volta, para o seek e o {@code order by} usarem o índice
+     * {@code (coluna, id)}.
+     *
+     * @param nullable se a coluna aceita {@code null} (ver {@link KeysetCursor#where})
+     * @param parameter converte o valor gravado no cursor para o tipo do campo
+     */
+    public record SortKey(String path, boolean nullable, Function<Object, Object> parameter) {
+
+        public static SortKey of(String path) {
+            return new SortKey(path, false, Function.identity());
+        }
+
+        public static SortKey nullable(String path) {
+            return new SortKey(path, true, Function.identity());
+        }
+
+        /**
+         * Enum gravado como texto: o cursor guarda o nome, o parâmetro volta a ser a constante.
+         */
+        public static <E extends Enum<E>> SortKey of(String path, Class<E> type) {
+            return new SortKey(path, false, value -> Enum.valueOf(type, (String) value));
+        }
+    }
+
+    public final String sort;
+    public final String direction;
+    /**
+     * Caminho HQL do campo de ordenação, também usado como coluna {@link Projections#SORT_KEY} das projeções.
+     */
+    public final String path;
+
+    private final SortKey key;
+    private final String cursor;
+    private final KeysetCursor position;
+
+    private KeysetQuery(String sort, String direction, SortKey key, String cursor, KeysetCursor position) {
+        this.sort = sort;
+        this.direction = direction;
+        this.path = key.path();
+        this.key = key;
+        this.cursor = cursor;
+        this.position = position;
+    }
+
+    /**
+     * Lê o cursor, quando houver: a ordenação e a direção gravadas nele prevalecem sobre as da requisição.
+     *
+     * @param sorts campo de ordenação aceito pelo endpoint -> coluna
+     * @param cursor {@code null} pagina por offset; vazio inicia a paginação por cursor na primeira página
+     * @throws IllegalArgumentException se o cursor é inválido ou ordena por um campo que o endpoint não aceita
+     */
+    public static KeysetQuery of(Map<String, SortKey> sorts, String sort, String direction, String cursor) {
+        KeysetCursor position = null;
+        if (cursor != null && !cursor.isBlank()) {
+            position = KeysetCursor.decode(cursor);
+            if (!sorts.containsKey(position.sort)) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            sort = position.sort;
+            direction = position.direction;
+        }
+        return new KeysetQuery(sort, direction, sorts.get(sort), cursor, position);
+    }
+
+    /**
+     * Busca a página.
+     *
+     * @param filter condição do endpoint, vazia quando não há filtro
+     * @param page página pedida, só usada sem cursor
+     * @param value valor do campo de ordenação de uma linha
+     * @param id id de uma linha
+     */
+    public <T> Page<T> fetch(
+            String filter, Parameters params, int page, int size,
+            Rows<T> rows, Function<T, Object> value, ToLongFunction<T> id
+    ) {
+        boolean ascending = position == null ? !"desc".equalsIgnoreCase(direction) : position.ascending();
+
+        StringBuilder where = new StringBuilder(filter);
+        if (position != null) {
+            if (!where.isEmpty()) {
+                where.append(" and ");
+            }
+            where.append(position.where(path, key.nullable()));
+            position.parameters(params, key.parameter());
+        }
+        where.append(where.isEmpty() ? "" : " ").append(KeysetCursor.orderBy(path, ascending));
+
+        // Uma linha a mais indica se existe próxima página (ou anterior, ao voltar com o cursor)
+        int offset = cursor == null && page > 1 ? (page - 1) * size : 0;
+        List<T> items = new ArrayList<>(rows.fetch(where.toString(), params, offset, size + 1));
+        boolean hasMore = items.size() > size;
+        if (hasMore) {
+            items.remove(size);
+        }
+        if (cursor == null) {
+            return new Page<>(items, hasMore, null, null);
+        }
+
+        boolean backward = position != null && position.backward;
+        if (backward) {
+            Collections.reverse(items);
+        }
+
+        String next = null;
+        String prev = null;
+        if (!items.isEmpty()) {
+            T first = items.get(0);
+            T last = items.get(items.size() - 1);
+            if (backward || hasMore) {
+                next = KeysetCursor.after(sort, direction, value.apply(last), id.applyAsLong(last)).encode();
+            }
+            if (backward ? hasMore : position != null) {
+                prev = KeysetCursor.before(sort, direction, value.apply(first), id.applyAsLong(first)).encode();
+            }
+        }
+        return new Page<>(items, hasMore, next, prev);
+    }
+
+    /**
+     * Página de uma projeção: o valor de ordenação vem da coluna {@link Projections#SORT_KEY}.
+     */
+    public Page<Map<String, Object>> fetch(
+            String filter, Parameters params, int page, int size, Rows<Map<String, Object>> rows
+    ) {
+        return fetch(filter, params, page, size, rows, row -> row.get(Projections.SORT_KEY), row -> (Long) row.get("id"));
+    }
+}
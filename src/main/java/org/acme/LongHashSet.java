@@ -0,0 +1,153 @@
+package org.acme;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de {@code long} positivos com endereçamento aberto (sondagem linear), sem boxing.
+ * O zero marca posição vazia, o que vale para ids gerados por sequência.
+ */
+public class LongHashSet {
+
+    private long[] table;
+    private int size;
+
+    public LongHashSet() {
+        this(4);
+    }
+
+    public LongHashSet(int expected) {
+        table = new long[tableSize(expected)];
+    }
+
+    public boolean add(long value) {
+        checkKey(value);
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        int i = LongHashing.index(value, mask);
+        while (table[i] != 0) {
+            if (table[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value <= 0) {
+            return false;
+        }
+        int mask = table.length - 1;
+        int i = LongHashing.index(value, mask);
+        while (table[i] != 0) {
+            if (table[i] == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long value) {
+        if (value <= 0) {
+            return false;
+        }
+        int mask = table.length - 1;
+        int i = LongHashing.index(value, mask);
+        while (table[i] != 0) {
+            if (table[i] == value) {
+                shiftBack(i, mask);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toSortedArray() {
+        long[] values = new long[size];
+        int n = 0;
+        for (long value : table) {
+            if (value != 0) {
+                values[n++] = value;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * Elementos presentes nos dois conjuntos, em ordem crescente. Percorre o menor e consulta o maior.
+     */
+    public static long[] intersection(LongHashSet a, LongHashSet b) {
+        LongHashSet small = a.size <= b.size ? a : b;
+        LongHashSet large = small == a ? b : a;
+        long[] values = new long[small.size];
+        int n = 0;
+        for (long value : small.table) {
+            if (value != 0 && large.contains(value)) {
+                values[n++] = value;
+            }
+        }
+        long[] result = Arrays.copyOf(values, n);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void shiftBack(int hole, int mask) {
+        int i = hole;
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (table[j] == 0) {
+                break;
+            }
+            int home = LongHashing.index(table[j], mask);
+            // Move o elemento para o buraco se a posição de origem dele não estiver entre o buraco e j
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int i = LongHashing.index(value, mask);
+                while (table[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = value;
+            }
+        }
+    }
+
+    static int tableSize(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        return Math.max(4, capacity);
+    }
+
+    static void checkKey(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Somente ids positivos: " + value);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.acme;
+
+final class LongHashing {
+
+    private LongHashing() {
+    }
+
+    static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,186 @@
+package org.acme;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Cópia em memória de {@code aluno_curso} nas duas direções (aluno -> cursos e curso -> alunos) com
+ * conjuntos de {@code long} primitivos. Serve consultas de pertinência, contagens e interseções sem passar
+ * pelo Hibernate. É carregada na inicialização e atualizada depois do commit de cada matrícula.
+ *
+ * <p>Só enxerga as escritas deste processo, então nunca decide uma matrícula ou desmatrícula: essas vão sempre
+ * ao banco, e o resultado corrige a cópia.
+ */
+@ApplicationScoped
+public class MatriculaIndex {
+
+    private static final LongHashSet VAZIO = new LongHashSet();
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    private final LongObjectHashMap<LongHashSet> cursosPorAluno = new LongObjectHashMap<>();
+    private final LongObjectHashMap<LongHashSet> alunosPorCurso = new LongObjectHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        lock.writeLock().lock();
+        try {
+            cursosPorAluno.clear();
+            alunosPorCurso.clear();
+            try (Stream<?> rows = em.createNativeQuery("select aluno_id, curso_id from aluno_curso").getResultStream()) {
+                rows.forEach(row -> {
+                    Object[] pair = (Object[]) row;
+                    add(((Number) pair[0]).longValue(), ((Number) pair[1]).longValue());
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long alunoId, long cursoId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet cursos = cursosPorAluno.get(alunoId);
+            return cursos != null && cursos.contains(cursoId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countAlunos(long cursoId) {
+        lock.readLock().lock();
+        try {
+            return alunosDe(cursoId).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countCursos(long alunoId) {
+        lock.readLock().lock();
+        try {
+            return cursosDe(alunoId).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] alunos(long cursoId) {
+        lock.readLock().lock();
+        try {
+            return alunosDe(cursoId).toSortedArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] cursos(long alunoId) {
+        lock.readLock().lock();
+        try {
+            return cursosDe(alunoId).toSortedArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Alunos matriculados nos dois cursos, em ordem crescente de id.
+     */
+    public long[] alunosEmComum(long cursoId, long outroCursoId) {
+        lock.readLock().lock();
+        try {
+            return LongHashSet.intersection(alunosDe(cursoId), alunosDe(outroCursoId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void matriculado(long alunoId, long cursoId) {
+        afterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                add(alunoId, cursoId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void desmatriculado(long alunoId, long cursoId) {
+        afterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(alunoId, cursoId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void alunoRemovido(long alunoId) {
+        afterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                for (long cursoId : cursosDe(alunoId).toSortedArray()) {
+                    remove(alunoId, cursoId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void cursoRemovido(long cursoId) {
+        afterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                for (long alunoId : alunosDe(cursoId).toSortedArray()) {
+                    remove(alunoId, cursoId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private LongHashSet alunosDe(long cursoId) {
+        LongHashSet alunos = alunosPorCurso.get(cursoId);
+        return alunos == null ? VAZIO : alunos;
+    }
+
+    private LongHashSet cursosDe(long alunoId) {
+        LongHashSet cursos = cursosPorAluno.get(alunoId);
+        return cursos == null ? VAZIO : cursos;
+    }
+
+    private void add(long alunoId, long cursoId) {
+        cursosPorAluno.computeIfAbsent(alunoId, id -> new LongHashSet()).add(cursoId);
+        alunosPorCurso.computeIfAbsent(cursoId, id -> new LongHashSet()).add(alunoId);
+    }
+
+    private void remove(long alunoId, long cursoId) {
+        removeFrom(cursosPorAluno, alunoId, cursoId);
+        removeFrom(alunosPorCurso, cursoId, alunoId);
+    }
+
+    private static void removeFrom(LongObjectHashMap<LongHashSet> map, long key, long value) {
+        LongHashSet set = map.get(key);
+        if (set != null && set.remove(value) && set.isEmpty()) {
+            map.remove(key);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MatriculaLoteResponse {
+
+    public long cursoId;
+    public List<Long> matriculados = new ArrayList<>();
+    public List<Long> jaMatriculados = new ArrayList<>();
+    public List<Long> naoEncontrados = new ArrayList<>();
+
+    public MatriculaLoteResponse() {
+    }
+
+    public MatriculaLoteResponse(long cursoId) {
+        this.cursoId = cursoId;
+    }
+}
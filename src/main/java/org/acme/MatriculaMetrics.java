@@ -0,0 +1,44 @@
+package org.acme;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Contadores {@code matriculas.recusadas} das matrículas e desmatrículas que terminam em 404 (curso, aluno ou
+ * matrícula inexistente) ou 409 (aluno já matriculado). Registrados uma vez na inicialização para que o
+ * incremento não passe pela busca de medidores do registry.
+ */
+@ApplicationScoped
+public class MatriculaMetrics {
+
+    private final Counter matricularNaoEncontrado;
+    private final Counter matricularConflito;
+    private final Counter desmatricularNaoEncontrado;
+
+    MatriculaMetrics(MeterRegistry registry) {
+        matricularNaoEncontrado = counter(registry, "matricular", "404");
+        matricularConflito = counter(registry, "matricular", "409");
+        desmatricularNaoEncontrado = counter(registry, "desmatricular", "404");
+    }
+
+    private static Counter counter(MeterRegistry registry, String operacao, String status) {
+        return Counter.builder("matriculas.recusadas")
+                .description("Matrículas e desmatrículas recusadas")
+                .tag("operacao", operacao)
+                .tag("status", status)
+                .register(registry);
+    }
+
+    public void matricularNaoEncontrado() {
+        matricularNaoEncontrado.increment();
+    }
+
+    public void matricularConflito() {
+        matricularConflito.increment();
+    }
+
+    public void desmatricularNaoEncontrado() {
+        desmatricularNaoEncontrado.increment();
+    }
+}
@@ -0,0 +1,51 @@
+package org.acme;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+
+@Path("/matriculas")
+public class MatriculaResource {
+
+    @Inject
+    ExportService exports;
+
+    @GET
+    @Operation(
+            summary = "Exporta todas as matrículas",
+            description = "Exporta os pares (aluno, curso) de aluno_curso em NDJSON ou CSV"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = {
+                    @Content(mediaType = ExportService.NDJSON),
+                    @Content(mediaType = ExportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("/export")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String format
+    ) {
+        return exports.export(format, "matriculas",
+                "select a.id, c.id from Aluno a join a.cursos c order by a.id, c.id",
+                "aluno_id", "curso_id");
+    }
+}
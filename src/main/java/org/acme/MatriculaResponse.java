@@ -0,0 +1,36 @@
+package org.acme;
+
+import jakarta.ws.rs.core.UriInfo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resposta de uma matrícula: só o par matriculado e os links para o aluno, o curso e as listas de cada lado, sem
+ * carregar as coleções das entidades.
+ */
+public class MatriculaResponse {
+
+    public long alunoId;
+    public long cursoId;
+    public Map<String, String> _links;
+
+    public MatriculaResponse() {
+    }
+
+    public static MatriculaResponse from(long alunoId, long cursoId, UriInfo uriInfo) {
+        MatriculaResponse response = new MatriculaResponse();
+        response.alunoId = alunoId;
+        response.cursoId = cursoId;
+
+        String baseUri = uriInfo.getBaseUri().toString();
+        Map<String, String> links = new HashMap<>();
+        links.put("aluno", baseUri + "alunos/" + alunoId);
+        links.put("curso", baseUri + "cursos/" + cursoId);
+        links.put("alunosDoCurso", baseUri + "cursos/" + cursoId + "/alunos");
+        links.put("cursosDoAluno", baseUri + "alunos/" + alunoId + "/cursos");
+        links.put("delete", baseUri + "cursos/" + cursoId + "/alunos/" + alunoId);
+        response._links = links;
+        return response;
+    }
+}
@@ -0,0 +1,184 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Operações de matrícula feitas direto na tabela {@code aluno_curso}, sem carregar as coleções
+ * {@code Aluno.cursos}/{@code Curso.alunos}.
+ */
+@ApplicationScoped
+public class MatriculaService {
+
+    /**
+     * Tabela afetada pelos comandos nativos. Sem ela o Hibernate não sabe o que foi alterado e esvazia
+     * todo o cache de segundo nível a cada matrícula.
+     */
+    private static final String QUERY_SPACE = "aluno_curso";
+
+    static final String INSERT_IF_ABSENT = "insert into aluno_curso (aluno_id, curso_id) "
+            + "select cast(? as bigint), cast(? as bigint) "
+            + "where not exists (select 1 from aluno_curso where aluno_id = ? and curso_id = ?)";
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    MatriculaIndex indice;
+
+    @Inject
+    CursoStats stats;
+
+    @ConfigProperty(name = "matricula.lote.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    public boolean alunoExiste(long alunoId) {
+        return Aluno.count("id", alunoId) > 0;
+    }
+
+    public boolean cursoExiste(long cursoId) {
+        // Curso é @Cacheable: findById costuma ser atendido pelo cache de segundo nível, sem ir ao banco
+        return Curso.findById(cursoId) != null;
+    }
+
+    /**
+     * Insere o par em {@code aluno_curso} se ainda não existir. Devolve {@code false} quando o aluno já
+     * estava matriculado, inclusive quando outra requisição concorrente gravou o mesmo par antes
+     * (violação da chave primária composta).
+     *
+     * <p>Quem decide é sempre o banco: o índice em memória só existe neste processo e não enxerga desmatrículas
+     * de outras instâncias ou feitas direto no banco. Ele é corrigido aqui com o resultado do insert.
+     */
+    public boolean matricular(long alunoId, long cursoId) {
+        try {
+            boolean inserido = em.createNativeQuery(INSERT_IF_ABSENT)
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                    .setParameter(1, alunoId)
+                    .setParameter(2, cursoId)
+                    .setParameter(3, alunoId)
+                    .setParameter(4, cursoId)
+                    .executeUpdate() > 0;
+            indice.matriculado(alunoId, cursoId);
+            if (inserido) {
+                stats.matriculado(alunoId, cursoId);
+            }
+            return inserido;
+        } catch (PersistenceException e) {
+            if (isConstraintViolation(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove o par de {@code aluno_curso}. Devolve {@code false} quando o aluno não estava matriculado.
+     */
+    public boolean desmatricular(long alunoId, long cursoId) {
+        boolean removido = em.createNativeQuery("delete from aluno_curso where aluno_id = ? and curso_id = ?")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, QUERY_SPACE)
+                .setParameter(1, alunoId)
+                .setParameter(2, cursoId)
+                .executeUpdate() > 0;
+        indice.desmatriculado(alunoId, cursoId);
+        if (removido) {
+            stats.desmatriculado(alunoId, cursoId);
+        }
+        return removido;
+    }
+
+    /**
+     * Matricula os alunos no curso em blocos, cada bloco na sua própria transação: uma consulta para
+     * conferir quais alunos existem e um único batch JDBC de inserts condicionais.
+     */
+    public MatriculaLoteResponse matricularEmLote(long cursoId, List<Long> alunoIds) {
+        MatriculaLoteResponse result = new MatriculaLoteResponse(cursoId);
+        List<Long> ids = alunoIds.stream().filter(Objects::nonNull).distinct().toList();
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            MatriculaLoteResponse parcial;
+            try {
+                parcial = QuarkusTransaction.requiringNew().call(() -> matricularBloco(cursoId, chunk));
+            } catch (PersistenceException e) {
+                // Outra requisição inseriu o mesmo par ao mesmo tempo: na nova tentativa o "not exists" já o enxerga
+                parcial = QuarkusTransaction.requiringNew().call(() -> matricularBloco(cursoId, chunk));
+            }
+            result.matriculados.addAll(parcial.matriculados);
+            result.jaMatriculados.addAll(parcial.jaMatriculados);
+            result.naoEncontrados.addAll(parcial.naoEncontrados);
+        }
+
+        return result;
+    }
+
+    private MatriculaLoteResponse matricularBloco(long cursoId, List<Long> alunoIds) {
+        MatriculaLoteResponse result = new MatriculaLoteResponse(cursoId);
+
+        Map<Long, Aluno.Sexo> existentes = new HashMap<>();
+        em.createQuery("select a.id, a.sexo from Aluno a where a.id in :ids", Object[].class)
+                .setParameter("ids", alunoIds)
+                .getResultList()
+                .forEach(aluno -> existentes.put((Long) aluno[0], (Aluno.Sexo) aluno[1]));
+
+        List<Long> candidatos = alunoIds.stream().filter(existentes::containsKey).toList();
+        alunoIds.stream().filter(id -> !existentes.containsKey(id)).forEach(result.naoEncontrados::add);
+        if (candidatos.isEmpty()) {
+            return result;
+        }
+
+        int[] counts = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_IF_ABSENT)) {
+                for (Long alunoId : candidatos) {
+                    insert.setLong(1, alunoId);
+                    insert.setLong(2, cursoId);
+                    insert.setLong(3, alunoId);
+                    insert.setLong(4, cursoId);
+                    insert.addBatch();
+                }
+                return insert.executeBatch();
+            }
+        });
+
+        Map<Aluno.Sexo, Long> porSexo = new EnumMap<>(Aluno.Sexo.class);
+        for (int i = 0; i < candidatos.size(); i++) {
+            if (counts[i] == 0) {
+                result.jaMatriculados.add(candidatos.get(i));
+                indice.matriculado(candidatos.get(i), cursoId);
+            } else if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                result.matriculados.add(candidatos.get(i));
+                indice.matriculado(candidatos.get(i), cursoId);
+                porSexo.merge(existentes.get(candidatos.get(i)), 1L, Long::sum);
+            }
+        }
+        if (!result.matriculados.isEmpty()) {
+            stats.matriculados(cursoId, porSexo);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+package org.acme;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+
+/**
+ * Latência de cada endpoint ({@code http.server.requests}, por método e URI) publicada como histograma de
+ * buckets fixos: o registro custa um incremento por requisição e os percentis são calculados na consulta
+ * ({@code histogram_quantile}), agregáveis entre instâncias.
+ */
+@Singleton
+public class MetricsConfig {
+
+    @Produces
+    @Singleton
+    public MeterFilter httpServerHistogram() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals("http.server.requests")) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package org.acme;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limita quantas chamadas dos métodos marcados rodam ao mesmo tempo ({@link ConnectionPermits}). Usado nos
+ * resources em virtual threads, que não têm o teto natural do pool de workers: sem ele milhares de requisições
+ * disputariam as conexões do datasource e estourariam o {@code acquisition-timeout} dentro da transação.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface PoolGuard {
+}
@@ -0,0 +1,65 @@
+package org.acme;
+
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.smallrye.common.annotation.NonBlocking;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+@PoolGuard
+@Interceptor
+// Antes do @Transactional: a permissão é obtida antes de a transação pegar uma conexão
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class PoolGuardInterceptor {
+
+    @Inject
+    ConnectionPermits permits;
+
+    @Inject
+    CurrentVertxRequest currentRequest;
+
+    @AroundInvoke
+    Object guard(InvocationContext context) throws Exception {
+        // Endpoints @NonBlocking rodam no event loop e não usam o banco: esperar uma permissão travaria o event loop
+        if (context.getMethod().isAnnotationPresent(NonBlocking.class)) {
+            return context.proceed();
+        }
+        if (!permits.acquire()) {
+            return Response.status(503)
+                    .header("Retry-After", "1")
+                    .entity("Servidor ocupado, tente novamente")
+                    .build();
+        }
+        boolean streamed = false;
+        try {
+            Object result = context.proceed();
+            streamed = releaseWhenStreamEnds(result);
+            return result;
+        } finally {
+            if (!streamed) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Corpos {@link StreamingOutput} (listagens completas e exportações) leem o banco depois que o método retorna:
+     * a permissão só é devolvida quando a resposta termina, inclusive se o cliente desconectar.
+     */
+    private boolean releaseWhenStreamEnds(Object result) {
+        if (!(result instanceof Response response) || !(response.getEntity() instanceof StreamingOutput)) {
+            return false;
+        }
+        RoutingContext routingContext = currentRequest.getCurrent();
+        if (routingContext == null) {
+            return false;
+        }
+        routingContext.addEndHandler(ended -> permits.release());
+        return true;
+    }
+}
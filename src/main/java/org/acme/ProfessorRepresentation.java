@@ -1,5 +1,6 @@
 package org.acme;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.ws.rs.core.UriInfo;
 
 import java.net.URI;
@@ -15,21 +16,44 @@ public class ProfessorRepresentation {
     public ProfessorRepresentation() {
     }
 
+    /**
+     * Representação montada a partir de {@code fields}/{@code embed}: os campos não pedidos ficam de fora do JSON
+     * em vez de virem como {@code null}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Partial extends ProfessorRepresentation {
+    }
+
     public static ProfessorRepresentation from(Professor professor, UriInfo uriInfo){
         ProfessorRepresentation rep = new ProfessorRepresentation();
         rep.id = professor.id;
         rep.nome = professor.nome;
         rep.email = professor.email;
 
-        rep._links = new HashMap<>();
-        URI baseUri = uriInfo.getBaseUri();
+        rep._links = links(uriInfo.getBaseUri(), professor.id);
 
-        rep._links.put("self", baseUri + "professores/" + professor.id);
-        rep._links.put("all", baseUri + "professores");
-        rep._links.put("delete", baseUri + "preofessores/" + professor.id);
-        rep._links.put("update", baseUri + "professores/" + professor.id);
-        rep._links.put("search", baseUri + "professores/search");
+        return rep;
+    }
 
+    /**
+     * Representação parcial a partir de uma linha de projeção: só os campos de {@code selection} são preenchidos.
+     */
+    public static ProfessorRepresentation from(Map<String, Object> row, FieldSelection selection, UriInfo uriInfo) {
+        ProfessorRepresentation rep = new Partial();
+        rep.id = (Long) row.get("id");
+        rep.nome = selection.has("nome") ? (String) row.get("nome") : null;
+        rep.email = selection.has("email") ? (String) row.get("email") : null;
+        rep._links = selection.has(FieldSelection.LINKS) ? links(uriInfo.getBaseUri(), rep.id) : null;
         return rep;
     }
+
+    private static Map<String, String> links(URI baseUri, long id) {
+        Map<String, String> links = new HashMap<>();
+        links.put("self", baseUri + "professores/" + id);
+        links.put("all", baseUri + "professores");
+        links.put("delete", baseUri + "preofessores/" + id);
+        links.put("update", baseUri + "professores/" + id);
+        links.put("search", baseUri + "professores/search");
+        return links;
+    }
 }
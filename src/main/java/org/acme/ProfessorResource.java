@@ -1,11 +1,20 @@
 package org.acme;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -16,24 +25,59 @@ import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Path("/professores")
+@UnlessBuildProperty(name = "virtual-threads.professores.enabled", stringValue = "true", enableIfMissing = true)
 public class ProfessorResource {
 
+    private static final List<String> FIELDS = List.of("nome", "email");
+    private static final Set<String> EMBEDS = Set.of();
+
+    /**
+     * Campos de ordenação aceitos -> coluna do {@code order by} e do seek dos cursores.
+     */
+    static final Map<String, KeysetQuery.SortKey> SORTS = Map.of(
+            "id", KeysetQuery.SortKey.of("id"),
+            "nome", KeysetQuery.SortKey.of("nome"),
+            "email", KeysetQuery.SortKey.of("email"));
+
     @Context
     UriInfo uriInfo;
 
+    @Context
+    Request request;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    SearchCountCache countCache;
+
+    @Inject
+    SearchIndex searchIndex;
+
+    @Inject
+    Projections projections;
+
+    @Inject
+    ExportService exports;
+
+    @Inject
+    ImportService imports;
+
+    @Inject
+    EmailIndex emails;
+
     private ProfessorRepresentation rep(Professor p) {
         return ProfessorRepresentation.from(p, uriInfo);
     }
 
-    private List<ProfessorRepresentation> repList(List<Professor> professores) {
-        return professores.stream().map(this::rep).collect(Collectors.toList());
-    }
-
     @GET
     @Operation(
             summary = "Retorna todos os professores",
@@ -47,8 +91,30 @@ public class ProfessorResource {
                     schema = @Schema(implementation = Professor.class, type = SchemaType.ARRAY)
             )
     )
-    public Response getAll() {
-        return Response.ok(repList(Professor.listAll())).build();
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getAll(
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, email e _links); o id sempre vem")
+            @QueryParam("fields") String fields
+    ) {
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, null, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        if (selection != null) {
+            return Response.ok(JsonStreaming.array(objectMapper,
+                    lastId -> project(projections.select("Professor", columns(selection, null), "id > :after order by id",
+                            Parameters.with("after", lastId), 0, JsonStreaming.CHUNK_SIZE), selection),
+                    rep -> rep.id, rep -> rep)).build();
+        }
+
+        return Response.ok(JsonStreaming.array(objectMapper, this::chunkAfter, this::rep)).build();
+    }
+
+    private List<Professor> chunkAfter(long lastId) {
+        return Professor.<Professor>find("id > ?1", Sort.by("id"), lastId).page(0, JsonStreaming.CHUNK_SIZE).list();
     }
 
     @GET
@@ -73,6 +139,7 @@ public class ProfessorResource {
             )
     )
     @Path("{id}")
+    @SqlBudget(statements = 1)
     public Response getById(
             @Parameter(description = "Id do professor a ser pesquisado", required = true)
             @PathParam("id") long id
@@ -81,7 +148,17 @@ public class ProfessorResource {
         if (entity == null) {
             return Response.status(404).build();
         }
-        return Response.ok(rep(entity)).build();
+
+        EntityTag tag = etag(entity);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).build();
+        }
+        return Response.ok(rep(entity)).tag(tag).build();
+    }
+
+    private EntityTag etag(Professor professor) {
+        return ETags.of(professor.id, professor.version);
     }
 
     @GET
@@ -106,6 +183,7 @@ public class ProfessorResource {
             )
     )
     @Path("/search")
+    @CollectionETag
     public Response search(
             @Parameter(description = "Query de busca por nome ou email")
             @QueryParam("q") String q,
@@ -114,38 +192,278 @@ public class ProfessorResource {
             @Parameter(description = "Direção da ordenação ascendente/descendente")
             @QueryParam("direction") @DefaultValue("asc") String direction,
             @QueryParam("page") @DefaultValue("1") int page,
-            @QueryParam("size") @DefaultValue("10") int size
+            @QueryParam("size") @DefaultValue("10") int size,
+            @Parameter(description = "Cursor opaco para paginação por keyset (vazio inicia na primeira página)")
+            @QueryParam("cursor") String cursor,
+            @Parameter(description = "Modo de contagem do total: exact, estimate (cache de curta duração) ou none")
+            @QueryParam("count") @DefaultValue("exact") String count,
+            @Parameter(description = "Campos de cada item, separados por vírgula (nome, email e _links); o id sempre vem")
+            @QueryParam("fields") String fields
     ) {
-        Set<String> allowed = Set.of("id", "nome", "email");
-        if (!allowed.contains(sort)) {
+        if (!SORTS.containsKey(sort)) {
             sort = "id";
         }
 
-        Sort sortObj = Sort.by(
-                sort,
-                "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending
-        );
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(fields, null, FIELDS, EMBEDS);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+        if (selection != null) {
+            return searchProjected(q, sort, direction, page, size, cursor, count, selection);
+        }
 
-        int effectivePage = page <= 1 ? 0 : page - 1;
+        if (cursor != null) {
+            return searchByCursor(q, sort, direction, size, cursor, count);
+        }
 
-        PanacheQuery<Professor> query = (q == null || q.isBlank())
-                ? Professor.findAll(sortObj)
-                : Professor.find("lower(nome) like ?1 or lower(email) like ?1",
-                sortObj,
-                "%" + q.toLowerCase() + "%");
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.Descending : Sort.Direction.Ascending;
+        // Desempate pelo id: sem ele linhas com o mesmo valor podem mudar de página entre uma consulta e outra
+        Sort sortObj = "id".equals(sort)
+                ? Sort.by("id", sortDirection)
+                : Sort.by(sort, sortDirection).and("id", sortDirection);
 
-        long totalElements = query.count();
-        long totalPages = (long) Math.ceil((double) totalElements / size);
+        int effectivePage = page <= 1 ? 0 : page - 1;
 
-        List<Professor> professores = query.page(effectivePage, size).list();
+        List<Long> candidates = searchIndex.candidates(Professor.class, q);
+
+        PanacheQuery<Professor> query;
+        if (q == null || q.isBlank()) {
+            query = SecondLevelCache.cacheable(Professor.findAll(sortObj));
+        } else if (candidates != null) {
+            query = Professor.find("id in ?1", sortObj, candidates);
+        } else {
+            query = SecondLevelCache.cacheable(Professor.find("lower(nome) like ?1 or lower(email) like ?1",
+                    sortObj,
+                    SearchCountCache.likePattern(q)));
+        }
+
+        Long totalElements = countCache.count(Professor.class, count, q,
+                candidates == null ? query::count : () -> candidates.size());
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        List<Professor> professores;
+        boolean hasNext;
+        if (candidates != null && "id".equals(sort)) {
+            // Ids já vêm ordenados do índice: só os ids da página vão para o banco
+            int from = Math.min(effectivePage * size, candidates.size());
+            int to = Math.min(from + size, candidates.size());
+            List<Long> pageIds = "desc".equalsIgnoreCase(direction)
+                    ? candidates.reversed().subList(from, to)
+                    : candidates.subList(from, to);
+            professores = Professor.find("id in ?1", sortObj, pageIds).list();
+            hasNext = to < candidates.size();
+        } else if (totalPages == null) {
+            // Sem total: busca uma linha a mais só para saber se existe próxima página
+            int offset = effectivePage * size;
+            professores = new ArrayList<>(query.range(offset, offset + size).list());
+            hasNext = professores.size() > size;
+            if (hasNext) {
+                professores.remove(size);
+            }
+        } else {
+            professores = query.page(effectivePage, size).list();
+            hasNext = page < totalPages;
+        }
 
         SearchProfessorResponse response = SearchProfessorResponse.from(
-                professores, uriInfo, q, sort, direction, page, size, totalElements, totalPages
+                professores.stream().map(this::rep).toList(), uriInfo, q, sort, direction, page, size, totalElements, totalPages, hasNext, count
+        );
+
+        return Response.ok(response).build();
+    }
+
+    private Response searchByCursor(String q, String sort, String direction, int size, String cursor, String count) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Professor.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Professor> result = keyset.fetch(filter(pattern, candidates, params), params, 1, size,
+                (where, p, offset, limit) -> Professor.<Professor>find(where, p).range(offset, offset + limit - 1).list(),
+                professor -> keysetValue(professor, keyset.sort), professor -> professor.id);
+        List<Professor> professores = result.items();
+
+        SearchProfessorResponse response = SearchProfessorResponse.fromCursor(
+                professores.stream().map(this::rep).toList(), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
         );
 
         return Response.ok(response).build();
     }
 
+    /**
+     * Busca com {@code fields}/{@code embed}: mesma filtragem, ordenação e paginação, mas a página vem de uma
+     * projeção só com as colunas pedidas, sem carregar entidades.
+     */
+    private Response searchProjected(
+            String q, String sort, String direction, int page, int size, String cursor, String count,
+            FieldSelection selection
+    ) {
+        KeysetQuery keyset;
+        try {
+            keyset = KeysetQuery.of(SORTS, sort, direction, cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+
+        String pattern = SearchCountCache.likePattern(q);
+        List<Long> candidates = searchIndex.candidates(Professor.class, q);
+        Long totalElements = total(q, count, pattern, candidates);
+        Long totalPages = totalElements == null ? null : (long) Math.ceil((double) totalElements / size);
+
+        Parameters params = new Parameters();
+        KeysetQuery.Page<Map<String, Object>> result = keyset.fetch(filter(pattern, candidates, params), params, page, size,
+                (where, p, offset, limit) -> projections.select("Professor", columns(selection, keyset.path), where, p, offset, limit));
+
+        if (cursor == null) {
+            return Response.ok(SearchProfessorResponse.from(
+                    project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, page, size,
+                    totalElements, totalPages, result.hasMore(), count
+            )).build();
+        }
+        return Response.ok(SearchProfessorResponse.fromCursor(
+                project(result.items(), selection), uriInfo, q, keyset.sort, keyset.direction, size,
+                totalElements, totalPages, count, cursor, result.next(), result.prev()
+        )).build();
+    }
+
+    /**
+     * Filtro do termo {@code q}: os ids do índice de trigramas ou, sem eles, o {@code like} no banco. Vazio sem termo.
+     */
+    private static String filter(String pattern, List<Long> candidates, Parameters params) {
+        if (candidates != null) {
+            params.and("ids", candidates);
+            return "id in :ids";
+        }
+        if (pattern != null) {
+            params.and("q", pattern);
+            return "(lower(nome) like :q or lower(email) like :q)";
+        }
+        return "";
+    }
+
+    private Long total(String q, String count, String pattern, List<Long> candidates) {
+        return countCache.count(Professor.class, count, q, () -> {
+            if (pattern == null) {
+                return Professor.count();
+            }
+            return candidates != null
+                    ? candidates.size()
+                    : Professor.count("lower(nome) like ?1 or lower(email) like ?1", pattern);
+        });
+    }
+
+    /**
+     * Colunas da projeção: os campos pedidos e, quando houver ordenação, o valor usado nos cursores.
+     */
+    private static Map<String, String> columns(FieldSelection selection, String sortPath) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (String field : selection.columns(FIELDS)) {
+            columns.put(field, field);
+        }
+        if (sortPath != null) {
+            columns.put(Projections.SORT_KEY, sortPath);
+        }
+        return columns;
+    }
+
+    private List<ProfessorRepresentation> project(List<Map<String, Object>> rows, FieldSelection selection) {
+        return rows.stream()
+                .map(row -> ProfessorRepresentation.from(row, selection, uriInfo))
+                .toList();
+    }
+
+    private static Object keysetValue(Professor professor, String sort) {
+        return switch (sort) {
+            case "nome" -> professor.nome;
+            case "email" -> professor.email;
+            default -> professor.id;
+        };
+    }
+
+    @GET
+    @Operation(
+            summary = "Exporta todos os professores",
+            description = "Exporta todos os professores em NDJSON (uma linha JSON por registro) ou CSV, sem links"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = {
+                    @Content(mediaType = ExportService.NDJSON),
+                    @Content(mediaType = ExportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "400",
+            description = "Bad Request",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @Path("/export")
+    public Response export(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @QueryParam("format") @DefaultValue("ndjson") String format
+    ) {
+        return exports.export(format, "professores",
+                "select p.id, p.nome, p.email from Professor p order by p.id",
+                "id", "nome", "email");
+    }
+
+    @POST
+    @Operation(
+            summary = "Importa professores em massa",
+            description = "Importa professores de um corpo NDJSON (um objeto JSON por linha) ou CSV (cabeçalho nome,email), "
+                    + "validando cada registro e devolvendo o resumo das linhas rejeitadas"
+    )
+    @RequestBody(
+            required = true,
+            content = {
+                    @Content(mediaType = ImportService.NDJSON),
+                    @Content(mediaType = ImportService.CSV)
+            }
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ImportResult.class)
+            )
+    )
+    @Path("/import")
+    @Consumes({ImportService.NDJSON, ImportService.CSV})
+    @Produces(MediaType.APPLICATION_JSON)
+    // Sequência e inserts em blocos: o número de comandos cresce com o arquivo
+    @SqlBudget(statements = SqlBudget.UNLIMITED, repeats = SqlBudget.UNLIMITED)
+    public Response importar(
+            @HeaderParam("Content-Type") String contentType,
+            InputStream body
+    ) {
+        ImportResult result = imports.importar(body, contentType, Professor.class,
+                "insert into professor (id, nome, email) values (?, ?, ?)",
+                (insert, professor) -> {
+                    insert.setString(2, professor.nome);
+                    insert.setString(3, professor.email);
+                },
+                professor -> professor.email,
+                professor -> searchIndex.put(Professor.class, professor.id, professor.nome, professor.email));
+        countCache.invalidate(Professor.class);
+        return Response.ok(result).build();
+    }
+
     @POST
     @Operation(
             summary = "Cria um novo professor",
@@ -174,9 +492,33 @@ public class ProfessorResource {
                     schema = @Schema(implementation = String.class)
             )
     )
+    @APIResponse(
+            responseCode = "409",
+            description = "Conflict",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
     @Transactional
     public Response insert(@Valid Professor professor) {
+        if (!emails.disponivel(Professor.class, professor.email, null)) {
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+
         Professor.persist(professor);
+        try {
+            Professor.flush();
+        } catch (PersistenceException e) {
+            // Outra requisição gravou o mesmo email entre a verificação e o insert
+            if (!EmailIndex.duplicado(e)) {
+                throw e;
+            }
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+        emails.registrar(Professor.class, professor.email);
+        searchIndex.put(Professor.class, professor.id, professor.nome, professor.email);
+        countCache.invalidate(Professor.class);
         return Response.status(201).entity(rep(professor)).build();
     }
 
@@ -207,6 +549,8 @@ public class ProfessorResource {
             return Response.status(404).build();
         }
         Professor.deleteById(id);
+        searchIndex.remove(Professor.class, id);
+        countCache.invalidate(Professor.class);
         return Response.noContent().build();
     }
 
@@ -246,6 +590,22 @@ public class ProfessorResource {
                     schema = @Schema(implementation = String.class)
             )
     )
+    @APIResponse(
+            responseCode = "412",
+            description = "Precondition Failed",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
+    @APIResponse(
+            responseCode = "409",
+            description = "Conflict",
+            content = @Content(
+                    mediaType = "text/plain",
+                    schema = @Schema(implementation = String.class)
+            )
+    )
     @Transactional
     @Path("{id}")
     public Response update(
@@ -257,10 +617,35 @@ public class ProfessorResource {
             return Response.status(404).build();
         }
 
+        // If-Match: só grava se o cliente partiu da representação atual
+        Response.ResponseBuilder preconditionFailed = request.evaluatePreconditions(etag(entity));
+        if (preconditionFailed != null) {
+            return preconditionFailed.entity("O professor foi alterado desde a última leitura").build();
+        }
+
+        if (!emails.disponivel(Professor.class, newProfessor.email, id)) {
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+
         entity.nome = newProfessor.nome;
         entity.email = newProfessor.email;
 
-        return Response.status(200).entity(rep(entity)).build();
+        try {
+            Professor.flush();
+        } catch (OptimisticLockException e) {
+            return Response.status(412).entity("O professor foi alterado por outra requisição").build();
+        } catch (PersistenceException e) {
+            if (!EmailIndex.duplicado(e)) {
+                throw e;
+            }
+            return Response.status(409).entity("Email já cadastrado").build();
+        }
+        emails.registrar(Professor.class, entity.email);
+
+        countCache.invalidate(Professor.class);
+        searchIndex.put(Professor.class, id, entity.nome, entity.email);
+
+        return Response.status(200).entity(rep(entity)).tag(etag(entity)).build();
     }
 }
 
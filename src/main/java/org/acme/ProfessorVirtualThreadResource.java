@@ -0,0 +1,16 @@
+package org.acme;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.Path;
+
+/**
+ * Os endpoints de {@link ProfessorResource} executados em virtual threads, ativados com
+ * {@code virtual-threads.professores.enabled=true} (propriedade de build).
+ */
+@Path("/professores")
+@RunOnVirtualThread
+@PoolGuard
+@IfBuildProperty(name = "virtual-threads.professores.enabled", stringValue = "true")
+public class ProfessorVirtualThreadResource extends ProfessorResource {
+}
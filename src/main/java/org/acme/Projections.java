@@ -0,0 +1,98 @@
+package org.acme;
+
+import io.quarkus.panache.common.Parameters;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de projeção usadas quando o cliente pede {@code fields}/{@code embed}: só as colunas pedidas
+ * são lidas, sem carregar entidades no contexto de persistência.
+ */
+@ApplicationScoped
+public class Projections {
+
+    /**
+     * Coluna extra com o valor do campo de ordenação, usada para montar os cursores de keyset.
+     */
+    public static final String SORT_KEY = "_sort";
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * Executa {@code select id, <colunas> from <entidade> where <where>} e devolve cada linha como um mapa
+     * nome da coluna -> valor.
+     *
+     * @param columns nome de cada coluna -> caminho HQL, na ordem do {@code select}
+     * @param where condição e {@code order by}, com os nomes de campo sem alias, como nos {@code find} do Panache
+     */
+    public List<Map<String, Object>> select(
+            String entity, Map<String, String> columns, String where, Parameters params, int offset, int limit
+    ) {
+        StringBuilder hql = new StringBuilder("select id");
+        for (String path : columns.values()) {
+            hql.append(", ").append(path);
+        }
+        hql.append(" from ").append(entity);
+        if (!where.isBlank()) {
+            hql.append(where.startsWith("order by") ? " " : " where ").append(where);
+        }
+
+        TypedQuery<Object[]> query = em.createQuery(hql.toString(), Object[].class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        params.map().forEach(query::setParameter);
+
+        List<String> names = new ArrayList<>(columns.keySet());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object[] values : query.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", values[0]);
+            for (int i = 0; i < names.size(); i++) {
+                row.put(names.get(i), values[i + 1]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Executa uma consulta cujo primeiro valor é o id do dono ({@code :ids}) e agrupa as demais colunas por dono.
+     */
+    public Map<Long, List<Object[]>> children(String hql, List<Long> ids) {
+        Map<Long, List<Object[]>> children = new HashMap<>();
+        if (ids.isEmpty()) {
+            return children;
+        }
+        for (Object[] row : em.createQuery(hql, Object[].class).setParameter("ids", ids).getResultList()) {
+            children.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+        }
+        return children;
+    }
+
+    /**
+     * Professor embutido a partir das linhas {@code (dono, p.id, p.nome, p.email, p.version)} de {@link #children}.
+     */
+    public static Professor professor(List<Object[]> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        Professor professor = new Professor((String) row[2], (String) row[3]);
+        professor.id = (Long) row[1];
+        professor.version = (Long) row[4];
+        return professor;
+    }
+
+    public static List<Long> ids(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> (Long) row.get("id")).toList();
+    }
+}
@@ -0,0 +1,60 @@
+package org.acme;
+
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Endpoint da requisição corrente e os comandos SQL executados nela, agrupados pelo texto do comando (os
+ * parâmetros já vêm como {@code ?}, então o mesmo comando repetido com ids diferentes cai na mesma chave).
+ */
+@RequestScoped
+public class RequestStatements {
+
+    private final Map<String, Integer> executions = new HashMap<>();
+    private String endpoint;
+    private int total;
+    private long entityLoadsAtStart;
+    private long collectionFetchesAtStart;
+
+    /**
+     * {@code Classe.metodo} do resource que atende a requisição.
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    void endpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void add(String sql) {
+        total++;
+        executions.merge(sql, 1, Integer::sum);
+    }
+
+    synchronized int total() {
+        return total;
+    }
+
+    /**
+     * O comando mais repetido e quantas vezes rodou, ou {@code null} se nenhum comando rodou.
+     */
+    synchronized Map.Entry<String, Integer> mostRepeated() {
+        return executions.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    void start(long entityLoads, long collectionFetches) {
+        entityLoadsAtStart = entityLoads;
+        collectionFetchesAtStart = collectionFetches;
+    }
+
+    long entityLoadsSince(long entityLoads) {
+        return entityLoads - entityLoadsAtStart;
+    }
+
+    long collectionFetchesSince(long collectionFetches) {
+        return collectionFetches - collectionFetchesAtStart;
+    }
+}
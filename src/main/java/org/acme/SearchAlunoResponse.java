@@ -17,14 +17,12 @@ public class SearchAlunoResponse {
     }
 
     public static SearchAlunoResponse from(
-            List<Aluno> alunos, UriInfo uriInfo, String query, String sort, String direction, int page, int size,
-            long totalElements, long totalPages
+            List<AlunoRepresentation> alunos, UriInfo uriInfo, String query, String sort, String direction, int page, int size,
+            Long totalElements, Long totalPages, boolean hasNext, String countMode
     ) {
         SearchAlunoResponse response = new SearchAlunoResponse();
 
-        response.alunos = alunos.stream()
-                .map(aluno -> AlunoRepresentation.from(aluno, uriInfo))
-                .toList();
+        response.alunos = alunos;
 
         response.pagination = new PaginationMetadata();
         response.pagination.page = page;
@@ -32,14 +30,69 @@ public class SearchAlunoResponse {
         response.pagination.totalElements = totalElements;
         response.pagination.totalPages = totalPages;
 
-        response._links = buildLinks(uriInfo, query, sort, direction, page, size, totalPages);
+        response._links = buildLinks(uriInfo, query, sort, direction, page, size, totalPages, hasNext, countMode);
 
         return response;
     }
 
+    public static SearchAlunoResponse fromCursor(
+            List<AlunoRepresentation> alunos, UriInfo uriInfo, String query, String sort, String direction, int size,
+            Long totalElements, Long totalPages, String countMode, String cursor, String nextCursor, String prevCursor
+    ) {
+        SearchAlunoResponse response = new SearchAlunoResponse();
+
+        response.alunos = alunos;
+
+        response.pagination = new PaginationMetadata();
+        response.pagination.size = size;
+        response.pagination.totalElements = totalElements;
+        response.pagination.totalPages = totalPages;
+        response.pagination.cursor = cursor;
+
+        response._links = buildCursorLinks(uriInfo, query, sort, direction, size, countMode, cursor, nextCursor, prevCursor);
+
+        return response;
+    }
+
+    private static Map<String, String> buildCursorLinks(
+            UriInfo uriInfo, String query, String sort, String direction, int size,
+            String countMode, String cursor, String nextCursor, String prevCursor
+    ) {
+        Map<String, String> links = new HashMap<>();
+        URI baseUri = uriInfo.getBaseUri();
+        String baseUrl = baseUri + "alunos/search";
+
+        StringBuilder params = new StringBuilder();
+        if (query != null && !query.isBlank()) {
+            params.append("q=").append(query).append("&");
+        }
+        params.append("sort=").append(sort)
+                .append("&direction=").append(direction)
+                .append("&size=").append(size);
+        if (countMode != null && !"exact".equalsIgnoreCase(countMode)) {
+            params.append("&count=").append(countMode);
+        }
+        appendSelection(params, uriInfo);
+
+        links.put("self", baseUrl + "?" + params + "&cursor=" + cursor);
+        links.put("first", baseUrl + "?" + params + "&cursor=");
+
+        if (prevCursor != null) {
+            links.put("prev", baseUrl + "?" + params + "&cursor=" + prevCursor);
+        }
+
+        if (nextCursor != null) {
+            links.put("next", baseUrl + "?" + params + "&cursor=" + nextCursor);
+        }
+
+        links.put("alunos", baseUri + "alunos");
+
+        return links;
+    }
+
     private static Map<String, String> buildLinks(
             UriInfo uriInfo, String query, String sort,
-            String direction, int page, int size, long totalPages
+            String direction, int page, int size, Long totalPages, boolean hasNext, String countMode
     ) {
         Map<String, String> links = new HashMap<>();
         URI baseUri = uriInfo.getBaseUri();
@@ -52,6 +105,10 @@ public class SearchAlunoResponse {
         params.append("sort=").append(sort)
                 .append("&direction=").append(direction)
                 .append("&size=").append(size);
+        if (countMode != null && !"exact".equalsIgnoreCase(countMode)) {
+            params.append("&count=").append(countMode);
+        }
+        appendSelection(params, uriInfo);
 
         // Self link
         links.put("self", baseUrl + "?" + params + "&page=" + page);
@@ -60,7 +117,9 @@ public class SearchAlunoResponse {
         links.put("first", baseUrl + "?" + params + "&page=1");
 
         // Last page
-        links.put("last", baseUrl + "?" + params + "&page=" + totalPages);
+        if (totalPages != null) {
+            links.put("last", baseUrl + "?" + params + "&page=" + totalPages);
+        }
 
         // Previous page
         if (page > 1) {
@@ -68,7 +127,7 @@ public class SearchAlunoResponse {
         }
 
         // Next page
-        if (page < totalPages) {
+        if (hasNext) {
             links.put("next", baseUrl + "?" + params + "&page=" + (page + 1));
         }
 
@@ -78,10 +137,23 @@ public class SearchAlunoResponse {
         return links;
     }
 
+    /**
+     * Mantém {@code fields}/{@code embed} nos links de navegação, para que as próximas páginas venham no mesmo formato.
+     */
+    private static void appendSelection(StringBuilder params, UriInfo uriInfo) {
+        for (String name : new String[]{"fields", "embed"}) {
+            String value = uriInfo.getQueryParameters().getFirst(name);
+            if (value != null) {
+                params.append("&").append(name).append("=").append(value);
+            }
+        }
+    }
+
     public static class PaginationMetadata {
         public int page;
         public int size;
-        public long totalElements;
-        public long totalPages;
+        public Long totalElements;
+        public Long totalPages;
+        public String cursor;
     }
 }
@@ -0,0 +1,98 @@
+package org.acme;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolve o total de elementos das buscas conforme o modo pedido pelo cliente:
+ * {@code exact} sempre consulta o banco, {@code estimate} serve o total de um cache de vida curta
+ * (chave: entidade + padrão do {@code like}, ver {@link #likePattern}) e {@code none} não conta nada.
+ */
+@ApplicationScoped
+public class SearchCountCache {
+
+    @ConfigProperty(name = "search.count-cache.ttl", defaultValue = "30s")
+    Duration ttl;
+
+    @ConfigProperty(name = "search.count-cache.max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    // Ordem de acesso: ao passar de max-entries sai a chave usada há mais tempo
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Padrão do {@code like} das buscas {@code q}, ou {@code null} quando não há termo. É também a chave do cache,
+     * então dois termos só compartilham o total quando a consulta é a mesma.
+     */
+    public static String likePattern(String q) {
+        return q == null || q.isBlank() ? null : "%" + q.toLowerCase(Locale.ROOT) + "%";
+    }
+
+    public Long count(Class<?> entity, String mode, String q, LongSupplier counter) {
+        if ("none".equalsIgnoreCase(mode)) {
+            return null;
+        }
+        if (!"estimate".equalsIgnoreCase(mode)) {
+            return counter.getAsLong();
+        }
+
+        String key = entity.getSimpleName() + ":" + likePattern(q);
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - now > 0) {
+                return entry.count;
+            }
+        }
+
+        // Uma escrita confirmada durante a contagem invalida o resultado: ele não entra no cache
+        long generation = generation(entity).get();
+        long total = counter.getAsLong();
+        synchronized (entries) {
+            if (generation(entity).get() == generation) {
+                entries.put(key, new Entry(total, now + ttl.toNanos()));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Descarta os totais da entidade depois do commit da transação corrente: antes dele uma busca concorrente
+     * ainda contaria os dados antigos e os guardaria por todo o {@code ttl}.
+     */
+    public void invalidate(Class<?> entity) {
+        afterCommit.run(() -> {
+            String prefix = entity.getSimpleName() + ":";
+            synchronized (entries) {
+                generation(entity).incrementAndGet();
+                entries.keySet().removeIf(key -> key.startsWith(prefix));
+            }
+        });
+    }
+
+    private AtomicLong generation(Class<?> entity) {
+        return generations.computeIfAbsent(entity, e -> new AtomicLong());
+    }
+
+    private record Entry(long count, long expiresAt) {
+    }
+}
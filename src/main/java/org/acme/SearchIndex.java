@@ -0,0 +1,83 @@
+package org.acme;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índices de trigramas usados pelas buscas {@code q} de alunos, cursos, disciplinas e professores.
+ * São carregados na inicialização e atualizados pelos resources depois do commit de cada escrita.
+ */
+@ApplicationScoped
+public class SearchIndex {
+
+    @ConfigProperty(name = "search.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "search.index.max-candidates", defaultValue = "10000")
+    int maxCandidates;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    private final Map<Class<?>, TrigramIndex> indexes = Map.of(
+            Aluno.class, new TrigramIndex(),
+            Curso.class, new TrigramIndex(),
+            Disciplina.class, new TrigramIndex(),
+            Professor.class, new TrigramIndex()
+    );
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        load(Aluno.class, Aluno.getEntityManager()
+                .createQuery("select a.id, a.nome, a.email from Aluno a", Object[].class).getResultList());
+        load(Curso.class, Curso.getEntityManager()
+                .createQuery("select c.id, c.nome, c.descricao from Curso c", Object[].class).getResultList());
+        load(Disciplina.class, Disciplina.getEntityManager()
+                .createQuery("select d.id, d.nome, d.descricao from Disciplina d", Object[].class).getResultList());
+        load(Professor.class, Professor.getEntityManager()
+                .createQuery("select p.id, p.nome, p.email from Professor p", Object[].class).getResultList());
+    }
+
+    private void load(Class<?> entity, List<Object[]> rows) {
+        TrigramIndex index = indexes.get(entity);
+        index.clear();
+        for (Object[] row : rows) {
+            index.put((Long) row[0], (String) row[1], (String) row[2]);
+        }
+    }
+
+    /**
+     * Ids que casam com {@code q}, ou {@code null} quando a busca deve cair no {@code like} do banco
+     * (índice desligado, curingas do like no termo, termo curto demais ou candidatos demais para um {@code id in}).
+     */
+    public List<Long> candidates(Class<?> entity, String q) {
+        if (!enabled || q == null || q.isBlank() || q.contains("%") || q.contains("_")) {
+            return null;
+        }
+        return indexes.get(entity).search(q, maxCandidates);
+    }
+
+    public void put(Class<?> entity, long id, String... fields) {
+        whenCommitted(() -> indexes.get(entity).put(id, fields));
+    }
+
+    public void remove(Class<?> entity, long id) {
+        whenCommitted(() -> indexes.get(entity).remove(id));
+    }
+
+    private void whenCommitted(Runnable action) {
+        if (enabled) {
+            afterCommit.run(action);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Cache de segundo nível do Hibernate para Professor, Curso e Disciplina ({@code @Cacheable}) e cache das
+ * consultas de busca mais comuns. Tamanho e expiração de cada região ficam em
+ * {@code quarkus.hibernate-orm.cache."<região>".*}.
+ */
+@ApplicationScoped
+public class SecondLevelCache {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    /**
+     * Marca a consulta para o cache de consultas. Use só em consultas que leem tabelas de entidades
+     * {@code @Cacheable}: o resultado guarda apenas ids, e as entidades vêm do cache de entidades.
+     */
+    public static <T> PanacheQuery<T> cacheable(PanacheQuery<T> query) {
+        return query.withHint(HibernateHints.HINT_CACHEABLE, true);
+    }
+
+    /**
+     * Descarta o cache de consultas. Necessário depois de escritas feitas por JDBC direto, que não passam
+     * pelo Hibernate e por isso não marcam as tabelas como alteradas.
+     */
+    public void evictQueries() {
+        sessionFactory.getCache().evictDefaultQueryRegion();
+    }
+
+    /**
+     * Acertos, falhas e inserções de cada região desde a inicialização
+     * ({@code quarkus.hibernate-orm.statistics=true}).
+     */
+    public List<Map<String, Object>> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        TreeSet<String> regions = new TreeSet<>(List.of(statistics.getSecondLevelCacheRegionNames()));
+        regions.add(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String region : regions) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("region", region);
+            entry.put("hits", regionStats.getHitCount());
+            entry.put("misses", regionStats.getMissCount());
+            entry.put("puts", regionStats.getPutCount());
+            entry.put("elementsInMemory", regionStats.getElementCountInMemory());
+            result.add(entry);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,197 @@
+package org.acme;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Carga de um volume de dados sintéticos ({@link SyntheticData}) na inicialização, com {@code seed.enabled=true}
+ * (ou o perfil {@code perf}). Grava com batch JDBC em blocos de {@code seed.batch-size}, com ids do mesmo gerador
+ * que o Hibernate usa, antes de os índices em memória serem carregados.
+ */
+@ApplicationScoped
+public class SeedLoader {
+
+    @FunctionalInterface
+    interface RowWriter {
+        void write(PreparedStatement insert, int index, long id) throws SQLException;
+    }
+
+    @ConfigProperty(name = "seed.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "seed.seed", defaultValue = "42")
+    long seed;
+
+    @ConfigProperty(name = "seed.alunos", defaultValue = "1000000")
+    int alunos;
+
+    @ConfigProperty(name = "seed.professores", defaultValue = "3000")
+    int professores;
+
+    @ConfigProperty(name = "seed.cursos", defaultValue = "2000")
+    int cursos;
+
+    @ConfigProperty(name = "seed.disciplinas", defaultValue = "5000")
+    int disciplinas;
+
+    @ConfigProperty(name = "seed.matriculas-por-aluno", defaultValue = "4")
+    double matriculasPorAluno;
+
+    @ConfigProperty(name = "seed.max-matriculas-por-aluno", defaultValue = "12")
+    int maxMatriculasPorAluno;
+
+    @ConfigProperty(name = "seed.zipf-exponent", defaultValue = "1.1")
+    double zipfExponent;
+
+    @ConfigProperty(name = "seed.batch-size", defaultValue = "5000")
+    int batchSize;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    SecondLevelCache cache;
+
+    // Antes de MatriculaIndex e SearchIndex, que carregam o banco no StartupEvent com a prioridade padrão
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION) StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (professores < cursos) {
+            throw new IllegalStateException("seed.professores deve ser maior ou igual a seed.cursos: cada curso tem um coordenador próprio");
+        }
+
+        long start = System.nanoTime();
+        SyntheticData data = new SyntheticData(seed);
+
+        SyntheticData professorData = data.fork("professor");
+        long[] professorIds = load(Professor.class, professores,
+                "insert into professor (id, nome, email) values (?, ?, ?)",
+                (insert, i, id) -> {
+                    String nome = professorData.nome(professorData.feminino());
+                    insert.setString(2, "Prof. " + nome);
+                    insert.setString(3, SyntheticData.email(nome, id, "senac.com.br"));
+                });
+
+        SyntheticData cursoData = data.fork("curso");
+        long[] cursoIds = load(Curso.class, cursos,
+                "insert into curso (id, nome, descricao, cargaHoraria, coordenador_id) values (?, ?, ?, ?, ?)",
+                (insert, i, id) -> {
+                    String nome = cursoData.curso(i);
+                    insert.setString(2, nome);
+                    insert.setString(3, cursoData.descricao(nome));
+                    insert.setInt(4, cursoData.between(2400, 7200, 100));
+                    insert.setLong(5, professorIds[i]);
+                });
+
+        SyntheticData disciplinaData = data.fork("disciplina");
+        load(Disciplina.class, disciplinas,
+                "insert into disciplina (id, nome, descricao, cargaHoraria, professor_id) values (?, ?, ?, ?, ?)",
+                (insert, i, id) -> {
+                    String nome = disciplinaData.curso(i);
+                    insert.setString(2, nome);
+                    insert.setString(3, disciplinaData.descricao(nome));
+                    insert.setInt(4, disciplinaData.between(30, 100, 10));
+                    insert.setLong(5, professorIds[disciplinaData.nextInt(professorIds.length)]);
+                });
+
+        SyntheticData alunoData = data.fork("aluno");
+        long[] alunoIds = load(Aluno.class, alunos,
+                "insert into aluno (id, nome, email, sexo) values (?, ?, ?, ?)",
+                (insert, i, id) -> {
+                    boolean feminino = alunoData.feminino();
+                    String nome = alunoData.nome(feminino);
+                    insert.setString(2, nome);
+                    insert.setString(3, SyntheticData.email(nome, id, "gmail.com"));
+                    insert.setString(4, (feminino ? Aluno.Sexo.FEMININO : Aluno.Sexo.MASCULINO).name());
+                });
+
+        long matriculas = matricular(data.fork("matricula"), alunoIds, cursoIds);
+
+        // As linhas não passaram pelo Hibernate
+        cache.evictQueries();
+        Log.infof("Carga sintética: %d professores, %d cursos, %d disciplinas, %d alunos e %d matrículas em %d ms",
+                professores, cursos, disciplinas, alunos, matriculas, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private <T extends PanacheEntity> long[] load(Class<T> type, int count, String insertSql, RowWriter writer) {
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += batchSize) {
+            int first = from;
+            int last = Math.min(from + batchSize, count);
+            QuarkusTransaction.requiringNew().run(() -> {
+                SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+                BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                        .getMappingMetamodel()
+                        .getEntityDescriptor(type)
+                        .getGenerator();
+
+                em.unwrap(Session.class).doWork(connection -> {
+                    try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                        for (int i = first; i < last; i++) {
+                            ids[i] = (Long) generator.generate(session, null, null, EventType.INSERT);
+                            insert.setLong(1, ids[i]);
+                            writer.write(insert, i, ids[i]);
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                    }
+                });
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * Cada aluno faz em média {@code seed.matriculas-por-aluno} cursos distintos, sorteados por popularidade.
+     */
+    private long matricular(SyntheticData data, long[] alunoIds, long[] cursoIds) {
+        if (cursoIds.length == 0) {
+            return 0;
+        }
+        SyntheticData.Zipf popularidade = new SyntheticData.Zipf(cursoIds.length, zipfExponent);
+        int max = Math.min(maxMatriculasPorAluno, cursoIds.length);
+        long[] total = new long[1];
+
+        for (int from = 0; from < alunoIds.length; from += batchSize) {
+            int first = from;
+            int last = Math.min(from + batchSize, alunoIds.length);
+            QuarkusTransaction.requiringNew().run(() -> em.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "insert into aluno_curso (aluno_id, curso_id) values (?, ?)")) {
+                    for (int i = first; i < last; i++) {
+                        int quantidade = data.matriculas(matriculasPorAluno, max);
+                        LongHashSet escolhidos = new LongHashSet(quantidade);
+                        while (escolhidos.size() < quantidade) {
+                            escolhidos.add(cursoIds[popularidade.sample(data)]);
+                        }
+                        for (long cursoId : escolhidos.toSortedArray()) {
+                            insert.setLong(1, alunoIds[i]);
+                            insert.setLong(2, cursoId);
+                            insert.addBatch();
+                        }
+                        total[0] += quantidade;
+                    }
+                    insert.executeBatch();
+                }
+            }));
+        }
+        return total[0];
+    }
+}
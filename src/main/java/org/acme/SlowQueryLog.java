@@ -0,0 +1,138 @@
+package org.acme;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Log de consultas lentas no lugar do {@code log.sql}: só as consultas acima de {@code slow-query.threshold}
+ * são registradas, mais uma fração {@code slow-query.sample-rate} das demais. Cada linha traz os parâmetros
+ * da consulta, as linhas devolvidas e o endpoint de origem. As lentas também são agregadas por consulta para
+ * o relatório de {@code GET /queries/slow}.
+ */
+@ApplicationScoped
+public class SlowQueryLog {
+
+    private static final Pattern PARAMETER = Pattern.compile(":(\\w+)|\\?(\\d*)");
+
+    @ConfigProperty(name = "slow-query.threshold", defaultValue = "100ms")
+    Duration threshold;
+
+    @ConfigProperty(name = "slow-query.sample-rate", defaultValue = "0")
+    double sampleRate;
+
+    @ConfigProperty(name = "slow-query.max-entries", defaultValue = "500")
+    int maxEntries;
+
+    private final Map<String, Entry> slowest = new ConcurrentHashMap<>();
+
+    public static class Entry {
+        public String query;
+        public List<String> parametros;
+        public long execucoes;
+        public long totalMs;
+        public long maxMs;
+        public int maxLinhas;
+        public Set<String> origens = new LinkedHashSet<>();
+
+        synchronized void add(long time, int rows, String origem) {
+            execucoes++;
+            totalMs += time;
+            maxMs = Math.max(maxMs, time);
+            maxLinhas = Math.max(maxLinhas, rows);
+            if (origem != null && origens.size() < 10) {
+                origens.add(origem);
+            }
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("query", query);
+            map.put("parametros", parametros);
+            map.put("execucoes", execucoes);
+            map.put("totalMs", totalMs);
+            map.put("mediaMs", execucoes == 0 ? 0 : totalMs / execucoes);
+            map.put("maxMs", maxMs);
+            map.put("maxLinhas", maxLinhas);
+            map.put("origens", List.copyOf(origens));
+            return map;
+        }
+    }
+
+    void executed(String query, int rows, long time) {
+        boolean slow = time >= threshold.toMillis();
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        String origem = origem();
+        List<String> parametros = parametros(query);
+        if (slow) {
+            Log.warnf("Consulta lenta (%d ms, %d linhas, %s) parâmetros %s: %s", time, rows, origem, parametros, query);
+            Entry entry = slowest.get(query);
+            if (entry == null && slowest.size() < maxEntries) {
+                entry = slowest.computeIfAbsent(query, q -> {
+                    Entry e = new Entry();
+                    e.query = q;
+                    e.parametros = parametros;
+                    return e;
+                });
+            }
+            if (entry != null) {
+                entry.add(time, rows, origem);
+            }
+        } else {
+            Log.infof("Consulta amostrada (%d ms, %d linhas, %s) parâmetros %s: %s", time, rows, origem, parametros, query);
+        }
+    }
+
+    /**
+     * As {@code limit} consultas lentas com maior tempo total.
+     */
+    public List<Map<String, Object>> top(int limit) {
+        List<Entry> entries = new ArrayList<>(slowest.values());
+        entries.sort(Comparator.comparingLong((Entry e) -> {
+            synchronized (e) {
+                return e.totalMs;
+            }
+        }).reversed());
+        return entries.stream().limit(limit).map(Entry::toMap).toList();
+    }
+
+    public void clear() {
+        slowest.clear();
+    }
+
+    /**
+     * Nomes ou posições dos parâmetros, na ordem em que aparecem, sem os valores.
+     */
+    static List<String> parametros(String query) {
+        List<String> parametros = new ArrayList<>();
+        Matcher matcher = PARAMETER.matcher(query);
+        while (matcher.find()) {
+            parametros.add(matcher.group(1) != null ? ":" + matcher.group(1) : "?" + matcher.group(2));
+        }
+        return parametros;
+    }
+
+    private static String origem() {
+        if (!Arc.container().requestContext().isActive()) {
+            return null;
+        }
+        return Arc.container().instance(RequestStatements.class).get().endpoint();
+    }
+}
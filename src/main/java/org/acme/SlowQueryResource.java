@@ -0,0 +1,65 @@
+package org.acme;
+
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+
+import java.util.Map;
+
+@Path("/queries/slow")
+public class SlowQueryResource {
+
+    @Inject
+    SlowQueryLog slowQueries;
+
+    @GET
+    @Operation(
+            summary = "Retorna as consultas lentas",
+            description = "Retorna as consultas acima de slow-query.threshold desde a inicialização (ou a última limpeza), "
+                    + "ordenadas pelo tempo total, com execuções, tempos médio e máximo, linhas e endpoints de origem"
+    )
+    @APIResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = Map.class, type = SchemaType.ARRAY)
+            )
+    )
+    @NonBlocking
+    public Response top(
+            @Parameter(description = "Quantidade de consultas")
+            @QueryParam("limit") @DefaultValue("20") int limit
+    ) {
+        if (limit < 1) {
+            return Response.status(400).entity("limit deve ser maior que zero").build();
+        }
+        return Response.ok(slowQueries.top(limit)).build();
+    }
+
+    @DELETE
+    @Operation(
+            summary = "Limpa o relatório de consultas lentas",
+            description = "Descarta as consultas lentas agregadas até agora, para medir uma nova rodada de carga"
+    )
+    @APIResponse(
+            responseCode = "204",
+            description = "Limpo"
+    )
+    @NonBlocking
+    public Response clear() {
+        slowQueries.clear();
+        return Response.noContent().build();
+    }
+}
@@ -0,0 +1,29 @@
+package org.acme;
+
+import io.quarkus.arc.Arc;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/**
+ * Estatísticas do Hibernate que repassam cada consulta executada (HQL ou nativa, com tempo e número de linhas)
+ * para {@link SlowQueryLog}. Carregamentos por id e inicialização de coleções não passam por aqui.
+ */
+public class SlowQueryStatistics extends StatisticsImpl {
+
+    private volatile SlowQueryLog log;
+
+    public SlowQueryStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void queryExecuted(String query, int rows, long time) {
+        super.queryExecuted(query, rows, time);
+        SlowQueryLog slowQueries = log;
+        if (slowQueries == null) {
+            // Criada pelo Hibernate, fora do CDI
+            slowQueries = log = Arc.container().instance(SlowQueryLog.class).get();
+        }
+        slowQueries.executed(query, rows, time);
+    }
+}
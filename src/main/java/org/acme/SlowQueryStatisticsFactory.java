@@ -0,0 +1,16 @@
+package org.acme;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Registrada em {@code hibernate.stats.factory}: troca as estatísticas padrão por {@link SlowQueryStatistics}.
+ */
+public class SlowQueryStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new SlowQueryStatistics(sessionFactory);
+    }
+}
@@ -0,0 +1,29 @@
+package org.acme;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Orçamento de comandos SQL de um endpoint, conferido por {@link SqlBudgetFilter} quando
+ * {@code sql-budget.enabled=true}. Endpoints sem a anotação usam {@code sql-budget.default-statements} e
+ * {@code sql-budget.default-repeats}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface SqlBudget {
+
+    int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * Máximo de comandos SQL na requisição.
+     */
+    int statements();
+
+    /**
+     * Máximo de execuções do mesmo comando (mesmo SQL, parâmetros diferentes). Acima disso o endpoint é
+     * tratado como N+1. Negativo usa {@code sql-budget.default-repeats}.
+     */
+    int repeats() default -1;
+}
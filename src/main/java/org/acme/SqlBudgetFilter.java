@@ -0,0 +1,118 @@
+package org.acme;
+
+import io.quarkus.logging.Log;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Confere o número de comandos SQL de cada requisição contra o {@link SqlBudget} do endpoint e procura o padrão
+ * N+1 (o mesmo comando repetido além do limite). Com {@code sql-budget.headers=true} a resposta traz as contagens
+ * em {@code X-SQL-*}; estouros geram um aviso no log ou, com {@code sql-budget.fail=true}, uma resposta 500.
+ * Carregamentos de entidades e coleções vêm das estatísticas globais do Hibernate e só são exatos sem
+ * requisições concorrentes, como em dev e nos testes. Respostas em streaming são contadas só até o método retornar.
+ * O endpoint de cada requisição fica em {@link RequestStatements} mesmo com o orçamento desligado, para o
+ * {@link SlowQueryLog}.
+ */
+@Provider
+public class SqlBudgetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @ConfigProperty(name = "sql-budget.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "sql-budget.headers", defaultValue = "false")
+    boolean headers;
+
+    @ConfigProperty(name = "sql-budget.fail", defaultValue = "false")
+    boolean fail;
+
+    @ConfigProperty(name = "sql-budget.default-statements", defaultValue = "10")
+    int defaultStatements;
+
+    @ConfigProperty(name = "sql-budget.default-repeats", defaultValue = "3")
+    int defaultRepeats;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Inject
+    RequestStatements statements;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method != null) {
+            statements.endpoint(method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        }
+        if (enabled) {
+            Statistics statistics = sessionFactory.getStatistics();
+            statements.start(statistics.getEntityLoadCount(), statistics.getCollectionFetchCount());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Method method = resourceInfo.getResourceMethod();
+        if (!enabled || method == null) {
+            return;
+        }
+
+        Statistics statistics = sessionFactory.getStatistics();
+        int total = statements.total();
+        Map.Entry<String, Integer> mostRepeated = statements.mostRepeated();
+        int repeats = mostRepeated == null ? 0 : mostRepeated.getValue();
+
+        if (headers) {
+            response.getHeaders().putSingle("X-SQL-Statements", total);
+            response.getHeaders().putSingle("X-SQL-Max-Repeats", repeats);
+            response.getHeaders().putSingle("X-SQL-Entity-Loads", statements.entityLoadsSince(statistics.getEntityLoadCount()));
+            response.getHeaders().putSingle("X-SQL-Collection-Fetches",
+                    statements.collectionFetchesSince(statistics.getCollectionFetchCount()));
+        }
+
+        SqlBudget budget = budget(method);
+        int maxStatements = budget == null ? defaultStatements : budget.statements();
+        int maxRepeats = budget == null || budget.repeats() < 0 ? defaultRepeats : budget.repeats();
+
+        String violation = null;
+        if (total > maxStatements) {
+            violation = total + " comandos SQL, orçamento de " + maxStatements;
+        } else if (repeats > maxRepeats) {
+            violation = "possível N+1: comando executado " + repeats + " vezes (limite " + maxRepeats + "): "
+                    + mostRepeated.getKey();
+        }
+        if (violation == null) {
+            return;
+        }
+
+        String endpoint = statements.endpoint();
+        if (fail) {
+            response.setStatus(500);
+            response.setEntity(endpoint + " excedeu o orçamento de SQL: " + violation, new Annotation[0],
+                    MediaType.TEXT_PLAIN_TYPE);
+        } else {
+            Log.warnf("%s %s excedeu o orçamento de SQL: %s", request.getMethod(), endpoint, violation);
+        }
+    }
+
+    private static SqlBudget budget(Method method) {
+        SqlBudget budget = method.getAnnotation(SqlBudget.class);
+        return budget != null ? budget : method.getDeclaringClass().getAnnotation(SqlBudget.class);
+    }
+}
@@ -0,0 +1,31 @@
+package org.acme;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Registra em {@link RequestStatements} cada comando que o Hibernate prepara dentro de uma requisição HTTP.
+ * Comandos por JDBC direto (importação, matrícula em lote) não passam por aqui.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class StatementCounter implements StatementInspector {
+
+    @ConfigProperty(name = "sql-budget.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    RequestStatements statements;
+
+    @Override
+    public String inspect(String sql) {
+        if (enabled && Arc.container().requestContext().isActive()) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
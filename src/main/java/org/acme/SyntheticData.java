@@ -0,0 +1,122 @@
+package org.acme;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador determinístico de dados sintéticos: a mesma semente produz sempre os mesmos nomes, emails, cursos e
+ * matrículas. A popularidade dos cursos segue uma lei de potência (Zipf), então poucos cursos concentram a
+ * maior parte das matrículas, como em produção.
+ */
+public class SyntheticData {
+
+    private static final String[] NOMES_FEMININOS = {
+            "Ana", "Beatriz", "Camila", "Daniela", "Eduarda", "Fernanda", "Gabriela", "Helena", "Isabela", "Juliana",
+            "Larissa", "Mariana", "Natália", "Patrícia", "Rafaela", "Sofia", "Tatiana", "Valentina", "Yasmin", "Luana"
+    };
+    private static final String[] NOMES_MASCULINOS = {
+            "André", "Bruno", "Carlos", "Diego", "Eduardo", "Felipe", "Gustavo", "Henrique", "Igor", "João",
+            "Lucas", "Marcelo", "Nicolas", "Otávio", "Pedro", "Rafael", "Samuel", "Thiago", "Vinícius", "Miguel"
+    };
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+            "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa",
+            "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas"
+    };
+    private static final String[] AREAS = {
+            "Computação", "Engenharia de Software", "Sistemas de Informação", "Redes", "Segurança da Informação",
+            "Ciência de Dados", "Design", "Administração", "Gestão de Projetos", "Jogos Digitais", "Matemática",
+            "Física", "Química", "História", "Letras", "Direito", "Economia", "Arquitetura", "Biologia", "Estatística"
+    };
+    private static final String[] NIVEIS = {"Fundamentos de", "Tópicos em", "Laboratório de", "Introdução a", "Avançado em"};
+
+    private final SplittableRandom random;
+
+    public SyntheticData(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Fluxo independente para uma tabela: o que é gerado para uma não muda quando a quantidade de outra muda.
+     */
+    public SyntheticData fork(String tabela) {
+        return new SyntheticData(random.split().nextLong() ^ tabela.hashCode());
+    }
+
+    public boolean feminino() {
+        return random.nextBoolean();
+    }
+
+    public String nome(boolean feminino) {
+        String[] nomes = feminino ? NOMES_FEMININOS : NOMES_MASCULINOS;
+        return nomes[random.nextInt(nomes.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)]
+                + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+    }
+
+    /**
+     * Email derivado do nome; o índice mantém o email único.
+     */
+    public static String email(String nome, long indice, String dominio) {
+        String[] partes = nome.toLowerCase().split(" ");
+        return stripAccents(partes[0] + "." + partes[partes.length - 1]) + "." + indice + "@" + dominio;
+    }
+
+    public String curso(int indice) {
+        return NIVEIS[random.nextInt(NIVEIS.length)] + " " + AREAS[indice % AREAS.length] + " " + (indice / AREAS.length + 1);
+    }
+
+    public String descricao(String nome) {
+        return "Curso de " + nome + " com aulas práticas, projetos e avaliação contínua.";
+    }
+
+    public int between(int min, int max, int step) {
+        return min + random.nextInt((max - min) / step + 1) * step;
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Quantos cursos um aluno faz: 1 mais uma distribuição geométrica de média {@code media - 1}, limitada a
+     * {@code max}.
+     */
+    public int matriculas(double media, int max) {
+        if (media <= 1) {
+            return 1;
+        }
+        double p = 1 / media;
+        int k = 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+        return Math.min(k, max);
+    }
+
+    /**
+     * Sorteio de índices em {@code [0, n)} com probabilidade proporcional a {@code 1 / (i + 1)^expoente}.
+     */
+    public static class Zipf {
+
+        private final double[] acumulado;
+
+        public Zipf(int n, double expoente) {
+            acumulado = new double[n];
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += 1 / Math.pow(i + 1, expoente);
+                acumulado[i] = total;
+            }
+            for (int i = 0; i < n; i++) {
+                acumulado[i] /= total;
+            }
+        }
+
+        public int sample(SyntheticData data) {
+            int i = Arrays.binarySearch(acumulado, data.random.nextDouble());
+            return Math.min(i < 0 ? -i - 1 : i, acumulado.length - 1);
+        }
+    }
+
+    private static String stripAccents(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+}
@@ -0,0 +1,161 @@
+package org.acme;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas em memória para busca por substring.
+ * Cada documento é o texto em minúsculas dos campos pesquisáveis de uma entidade;
+ * os candidatos da interseção dos trigramas são confirmados com {@code contains},
+ * então o resultado é exatamente o mesmo do {@code lower(campo) like '%q%'}.
+ * As listas de ids de cada trigrama são {@link LongHashSet}, sem boxing.
+ */
+public class TrigramIndex {
+
+    private final LongObjectHashMap<String> texts = new LongObjectHashMap<>();
+    private final LongObjectHashMap<LongHashSet> postings = new LongObjectHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long id, String... fields) {
+        String text = normalize(fields);
+        lock.writeLock().lock();
+        try {
+            String previous = texts.put(id, text);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+            for (long gram : trigrams(text)) {
+                postings.computeIfAbsent(gram, g -> new LongHashSet()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String previous = texts.remove(id);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            texts.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids (em ordem crescente) cujo texto contém {@code q}, sem diferenciar maiúsculas, ou {@code null} quando
+     * a busca examinaria mais que {@code maxCandidates} ids: a menor lista de trigramas é maior que isso (trigramas
+     * comuns, como os de um domínio de email) ou o termo é curto demais para ter trigramas.
+     */
+    public List<Long> search(String q, int maxCandidates) {
+        String needle = q.toLowerCase(Locale.ROOT);
+        long[] grams = trigrams(needle);
+        if (grams.length == 0) {
+            return null;
+        }
+
+        List<Long> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<LongHashSet> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                LongHashSet ids = postings.get(gram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(LongHashSet::size));
+            if (lists.get(0).size() > maxCandidates) {
+                return null;
+            }
+
+            for (long id : lists.get(0).toSortedArray()) {
+                boolean all = true;
+                for (int i = 1; i < lists.size() && all; i++) {
+                    all = lists.get(i).contains(id);
+                }
+                if (all && texts.get(id).contains(needle)) {
+                    result.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void removePostings(long id, String text) {
+        for (long gram : trigrams(text)) {
+            LongHashSet ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String... fields) {
+        StringBuilder text = new StringBuilder();
+        for (String field : fields) {
+            if (field != null) {
+                // Separador fora do alfabeto para não criar trigramas entre campos
+                text.append(field.toLowerCase(Locale.ROOT)).append('\u0000');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Trigramas distintos do texto, cada um empacotado num {@code long} positivo (16 bits por caractere).
+     */
+    static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        int n = 0;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == '\u0000' || b == '\u0000' || c == '\u0000') {
+                continue;
+            }
+            grams[n++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        Arrays.sort(grams, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+}
@@ -0,0 +1,54 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com drop-and-create
+
+create sequence professor_seq start with 1 increment by 50;
+create sequence aluno_seq start with 1 increment by 50;
+create sequence curso_seq start with 1 increment by 50;
+create sequence disciplina_seq start with 1 increment by 50;
+
+create table professor (
+    id bigint not null,
+    version bigint default 0 not null,
+    nome varchar(100) not null,
+    email varchar(255) not null,
+    primary key (id)
+);
+
+create table aluno (
+    id bigint not null,
+    version bigint default 0 not null,
+    nome varchar(100) not null,
+    email varchar(255) not null,
+    sexo varchar(255) not null check (sexo in ('MASCULINO', 'FEMININO')),
+    primary key (id)
+);
+
+create table curso (
+    id bigint not null,
+    version bigint default 0 not null,
+    nome varchar(100) not null,
+    descricao varchar(200) not null,
+    cargaHoraria integer not null,
+    coordenador_id bigint,
+    primary key (id),
+    constraint uk_curso_coordenador unique (coordenador_id),
+    constraint fk_curso_coordenador foreign key (coordenador_id) references professor (id)
+);
+
+create table disciplina (
+    id bigint not null,
+    version bigint default 0 not null,
+    nome varchar(100) not null,
+    descricao varchar(200) not null,
+    cargaHoraria integer not null,
+    professor_id bigint,
+    primary key (id),
+    constraint fk_disciplina_professor foreign key (professor_id) references professor (id)
+);
+
+create table aluno_curso (
+    aluno_id bigint not null,
+    curso_id bigint not null,
+    primary key (aluno_id, curso_id),
+    constraint fk_aluno_curso_aluno foreign key (aluno_id) references aluno (id),
+    constraint fk_aluno_curso_curso foreign key (curso_id) references curso (id)
+);
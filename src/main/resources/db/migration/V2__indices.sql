@@ -0,0 +1,22 @@
+-- Índices das ordenações aceitas em cada /search. O id entra como desempate, na mesma ordem do
+-- "order by <campo>, id" das consultas por página e por cursor, então a página sai do índice sem ordenar.
+
+create index ix_aluno_nome on aluno (nome, id);
+create index ix_aluno_email on aluno (email, id);
+create index ix_aluno_sexo on aluno (sexo, id);
+
+create index ix_professor_nome on professor (nome, id);
+create index ix_professor_email on professor (email, id);
+
+create index ix_curso_nome on curso (nome, id);
+create index ix_curso_descricao on curso (descricao, id);
+create index ix_curso_carga_horaria on curso (cargaHoraria, id);
+
+create index ix_disciplina_nome on disciplina (nome, id);
+create index ix_disciplina_descricao on disciplina (descricao, id);
+create index ix_disciplina_carga_horaria on disciplina (cargaHoraria, id);
+create index ix_disciplina_professor on disciplina (professor_id, id);
+
+-- A chave primária (aluno_id, curso_id) atende aluno -> cursos; este atende curso -> alunos
+-- (listagem de alunos do curso, contagens e o "not exists" da matrícula) só pelo índice
+create index ix_aluno_curso_curso on aluno_curso (curso_id, aluno_id);
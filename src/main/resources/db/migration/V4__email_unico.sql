@@ -0,0 +1,8 @@
+-- Email único por aluno e por professor. O índice único também atende o "order by email, id" da busca:
+-- com o email único, o id nunca desempata.
+
+drop index ix_aluno_email;
+create unique index ux_aluno_email on aluno (email);
+
+drop index ix_professor_email;
+create unique index ux_professor_email on professor (email);
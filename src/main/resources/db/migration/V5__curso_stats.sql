@@ -0,0 +1,17 @@
+-- Matriculados por curso e sexo, mantidos na mesma transação de cada escrita em aluno_curso (CursoStats).
+-- A leitura de /cursos/{id}/stats é uma busca pela chave primária.
+
+create table curso_stats (
+    curso_id bigint not null,
+    sexo varchar(255) not null check (sexo in ('MASCULINO', 'FEMININO')),
+    total bigint default 0 not null,
+    primary key (curso_id, sexo),
+    constraint fk_curso_stats_curso foreign key (curso_id) references curso (id) on delete cascade
+);
+
+insert into curso_stats (curso_id, sexo, total)
+select c.id, s.sexo,
+       (select count(*) from aluno_curso ac join aluno a on a.id = ac.aluno_id
+        where ac.curso_id = c.id and a.sexo = s.sexo)
+from curso c
+cross join (values ('MASCULINO'), ('FEMININO')) s (sexo);
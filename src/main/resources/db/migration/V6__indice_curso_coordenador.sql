@@ -0,0 +1,4 @@
+-- Ordenação de /cursos/search por professor: o keyset ordena e busca por (coordenador_id, id) na coluna pura,
+-- com os cursos sem coordenador no começo. A unique uk_curso_coordenador só cobre a primeira coluna.
+
+create index ix_curso_coordenador on curso (coordenador_id, id);
@@ -0,0 +1,62 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+
+/**
+ * A ETag das buscas e sub-coleções resume a página devolvida: muda sempre que o conteúdo muda, mesmo quando
+ * quantidade de linhas e maior id continuam iguais.
+ */
+@QuarkusTest
+class CollectionETagTest {
+
+    private static final String ALUNOS_DO_CURSO = "/cursos/1/alunos?sort=id&direction=desc&size=5";
+
+    @Test
+    void mesmaPaginaDevolve304() {
+        String tag = given().when().get(ALUNOS_DO_CURSO)
+                .then().statusCode(200).header("ETag", notNullValue())
+                .extract().header("ETag");
+
+        given().header("If-None-Match", tag)
+                .when().get(ALUNOS_DO_CURSO)
+                .then().statusCode(304).header("ETag", is(tag)).body(is(""));
+
+        given().header("If-None-Match", tag)
+                .when().get("/cursos/search?size=5")
+                .then().statusCode(200).header("ETag", not(tag));
+    }
+
+    @Test
+    void trocaDeMatriculaMudaATag() {
+        long primeiro = novoAluno("primeiro");
+        long segundo = novoAluno("segundo");
+        given().when().post("/cursos/1/alunos/" + primeiro).then().statusCode(200);
+
+        String antes = given().when().get(ALUNOS_DO_CURSO).then().statusCode(200).extract().header("ETag");
+
+        // Uma matrícula entra e outra sai: a quantidade de matrículas do curso não muda
+        given().when().post("/cursos/1/alunos/" + segundo).then().statusCode(200);
+        given().when().delete("/cursos/1/alunos/" + primeiro).then().statusCode(204);
+
+        given().header("If-None-Match", antes)
+                .when().get(ALUNOS_DO_CURSO)
+                .then().statusCode(200).header("ETag", not(antes));
+    }
+
+    private static long novoAluno(String prefixo) {
+        return given().contentType(ContentType.JSON)
+                .body(Map.of("nome", "Aluno ETag", "email", prefixo + "." + System.nanoTime() + "@teste.com", "sexo", "MASCULINO"))
+                .when().post("/alunos")
+                .then().statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+}
@@ -0,0 +1,98 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Email único de alunos e professores: o pré-filtro de Bloom ({@link EmailIndex}) só evita consultas, a recusa
+ * vem sempre do banco.
+ */
+@QuarkusTest
+class EmailUnicoTest {
+
+    @Inject
+    EmailIndex emails;
+
+    @Test
+    void inclusaoComEmailCadastradoDevolve409() {
+        given().contentType(ContentType.JSON)
+                .body(Map.of("nome", "Outra Ana", "email", "ana.clara@gmail.com", "sexo", "FEMININO"))
+                .when().post("/alunos")
+                .then().statusCode(409).body(is("Email já cadastrado"));
+
+        given().contentType(ContentType.JSON)
+                .body(Map.of("nome", "Outro Alpha", "email", "alpha@gmail.com"))
+                .when().post("/professores")
+                .then().statusCode(409).body(is("Email já cadastrado"));
+    }
+
+    @Test
+    void alteracaoParaEmailDeOutroDevolve409() {
+        String email = unico("alteracao");
+        long id = novoAluno(email);
+
+        given().contentType(ContentType.JSON)
+                .body(Map.of("nome", "Aluno Alterado", "email", "ana.clara@gmail.com", "sexo", "MASCULINO"))
+                .when().put("/alunos/" + id)
+                .then().statusCode(409).body(is("Email já cadastrado"));
+
+        // O próprio email continua disponível para o registro que já o usa
+        given().contentType(ContentType.JSON)
+                .body(Map.of("nome", "Aluno Alterado", "email", email, "sexo", "MASCULINO"))
+                .when().put("/alunos/" + id)
+                .then().statusCode(200);
+    }
+
+    @Test
+    void falsoPositivoDoFiltroConsultaOBanco() {
+        // No filtro, mas não no banco: é o caso de um falso positivo ou de um email trocado
+        String email = unico("falso-positivo");
+        emails.registrar(Aluno.class, email);
+
+        novoAluno(email);
+    }
+
+    @Test
+    void importacaoRejeitaEmailsRepetidos() {
+        String email = unico("importacao");
+        String ndjson = String.join("\n",
+                "{\"nome\": \"Importado\", \"email\": \"" + email + "\", \"sexo\": \"FEMININO\"}",
+                "{\"nome\": \"Já Existe\", \"email\": \"bruno.silva@gmail.com\", \"sexo\": \"MASCULINO\"}",
+                "{\"nome\": \"Repetido\", \"email\": \"" + email + "\", \"sexo\": \"FEMININO\"}");
+
+        ImportResult result = given().contentType(ImportService.NDJSON)
+                .body(ndjson)
+                .when().post("/alunos/import")
+                .then().statusCode(200)
+                .extract().as(ImportResult.class);
+
+        assertEquals(3, result.recebidos);
+        assertEquals(1, result.importados);
+        assertEquals(2, result.rejeitados);
+        Map<Long, List<String>> erros = result.rejeicoes.stream()
+                .collect(Collectors.toMap(rejeicao -> rejeicao.linha, rejeicao -> rejeicao.erros));
+        assertEquals(Map.of(2L, List.of("email: já cadastrado"), 3L, List.of("email: repetido no arquivo")), erros);
+    }
+
+    private static long novoAluno(String email) {
+        return given().contentType(ContentType.JSON)
+                .body(Map.of("nome", "Aluno Email", "email", email, "sexo", "FEMININO"))
+                .when().post("/alunos")
+                .then().statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+
+    private static String unico(String prefixo) {
+        return prefixo + "." + System.nanoTime() + "@teste.com";
+    }
+}
@@ -0,0 +1,49 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Garante que listagens e buscas executam o mesmo número de comandos SQL qualquer que seja o tamanho da página.
+ */
+@QuarkusTest
+class FetchPlanTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void searchStatementsDoNotGrowWithPageSize() {
+        for (String path : new String[]{"/alunos/search", "/cursos/search", "/disciplinas/search", "/professores/search"}) {
+            assertEquals(statements(path + "?size=1"), statements(path + "?size=5"), path);
+            assertEquals(statements(path + "?size=1&cursor="), statements(path + "?size=5&cursor="), path);
+        }
+    }
+
+    @Test
+    void listStatementsAreConstant() {
+        // Um select por bloco (com o professor no mesmo join) e, para coleções, um select de inicialização por bloco
+        Map<String, Long> expected = Map.of("/alunos", 2L, "/cursos", 2L, "/disciplinas", 1L, "/professores", 1L);
+        expected.forEach((path, esperado) -> {
+            // Com o cache de segundo nível frio ou quente, qualquer que seja a ordem dos testes
+            sessionFactory.getCache().evictAllRegions();
+            assertEquals(esperado.longValue(), statements(path), path);
+            assertEquals(esperado.longValue(), statements(path), path);
+        });
+    }
+
+    private long statements(String path) {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        given().when().get(path).then().statusCode(200);
+        return statistics.getPrepareStatementCount();
+    }
+}
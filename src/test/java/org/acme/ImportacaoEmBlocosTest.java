@@ -0,0 +1,58 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Importação com blocos de dois registros: emails repetidos dentro do bloco e entre blocos são recusados sem que o
+ * serviço guarde os emails do arquivo inteiro.
+ */
+@QuarkusTest
+@TestProfile(ImportacaoEmBlocosTest.BlocosPequenos.class)
+class ImportacaoEmBlocosTest {
+
+    public static class BlocosPequenos implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("import.chunk-size", "2");
+        }
+    }
+
+    @Test
+    void emailRepetidoEmOutroBlocoEhRecusadoPeloBanco() {
+        String primeiro = "bloco.um." + System.nanoTime() + "@teste.com";
+        String segundo = "bloco.dois." + System.nanoTime() + "@teste.com";
+        String ndjson = String.join("\n",
+                aluno(primeiro),
+                aluno(primeiro),
+                aluno(segundo),
+                aluno(primeiro));
+
+        ImportResult result = given().contentType(ImportService.NDJSON)
+                .body(ndjson)
+                .when().post("/alunos/import")
+                .then().statusCode(200)
+                .extract().as(ImportResult.class);
+
+        assertEquals(4, result.recebidos);
+        assertEquals(2, result.importados);
+        assertEquals(2, result.rejeitados);
+        Map<Long, List<String>> erros = result.rejeicoes.stream()
+                .collect(Collectors.toMap(rejeicao -> rejeicao.linha, rejeicao -> rejeicao.erros));
+        // Linha 2 no mesmo bloco da 1; linha 4 num bloco posterior, quando a 1 já está gravada
+        assertEquals(Map.of(2L, List.of("email: repetido no arquivo"), 4L, List.of("email: já cadastrado")), erros);
+    }
+
+    private static String aluno(String email) {
+        return "{\"nome\": \"Aluno Importado\", \"email\": \"" + email + "\", \"sexo\": \"FEMININO\"}";
+    }
+}
@@ -0,0 +1,103 @@
+package org.acme;
+
+import io.quarkus.panache.common.Parameters;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripPreservaPosicaoETipoDoValor() {
+        for (Object value : new Object[]{42L, 3200, "Ana Clara", "linha\ncom quebra", null}) {
+            KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.after("nome", "desc", value, 7).encode());
+            assertEquals("nome", cursor.sort);
+            assertEquals("desc", cursor.direction);
+            assertFalse(cursor.backward);
+            assertEquals(7, cursor.id);
+            assertEquals(value, cursor.value);
+        }
+        assertTrue(KeysetCursor.decode(KeysetCursor.before("id", "asc", 1L, 1).encode()).backward);
+    }
+
+    @Test
+    void cursorAdulteradoEhRecusado() {
+        for (String token : new String[]{
+                "@@@",
+                raw("nome\nasc\nf\n7"),
+                raw("nome\nasc\nf\n7\n"),
+                raw("nome\nasc\nf\nsete\nSAna"),
+                raw("cargaHoraria\nasc\nf\n7\nLmuito"),
+                raw("cargaHoraria\nasc\nf\n7\nX3200"),
+                raw("professor\nasc\nf\n7\nNnull")
+        }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token), token);
+            assertEquals("Cursor inválido", e.getMessage());
+        }
+    }
+
+    @Test
+    void paginaAnteriorInverteAVarredura() {
+        assertTrue(KeysetCursor.after("nome", "asc", "Ana", 1).ascending());
+        assertFalse(KeysetCursor.before("nome", "asc", "Ana", 1).ascending());
+        assertFalse(KeysetCursor.after("nome", "desc", "Ana", 1).ascending());
+        assertTrue(KeysetCursor.before("nome", "desc", "Ana", 1).ascending());
+
+        assertEquals("(nome < :cursorValue or (nome = :cursorValue and id < :cursorId))",
+                KeysetCursor.before("nome", "asc", "Ana", 1).where("nome", false));
+        assertEquals("order by nome desc, id desc", KeysetCursor.orderBy("nome", false));
+    }
+
+    @Test
+    void colunaComNulosTemCondicaoPropria() {
+        // Nulos são os menores valores: primeiro na ordem crescente, por último na decrescente
+        assertEquals("((professor.id is null and id > :cursorId) or professor.id is not null)",
+                KeysetCursor.after("professor", "asc", null, 3).where("professor.id", true));
+        assertEquals("(professor.id is null and id < :cursorId)",
+                KeysetCursor.after("professor", "desc", null, 3).where("professor.id", true));
+        assertEquals("(professor.id > :cursorValue or (professor.id = :cursorValue and id > :cursorId))",
+                KeysetCursor.after("professor", "asc", 2L, 3).where("professor.id", true));
+        assertEquals("(professor.id < :cursorValue or (professor.id = :cursorValue and id < :cursorId) or professor.id is null)",
+                KeysetCursor.after("professor", "desc", 2L, 3).where("professor.id", true));
+    }
+
+    @Test
+    void parametrosConvertemOValorDoCursor() {
+        KeysetQuery.SortKey sexo = KeysetQuery.SortKey.of("sexo", Aluno.Sexo.class);
+        Map<String, Object> params = KeysetCursor.after("sexo", "asc", "FEMININO", 9)
+                .parameters(new Parameters(), sexo.parameter())
+                .map();
+        assertEquals(Map.of("cursorValue", Aluno.Sexo.FEMININO, "cursorId", 9L), params);
+
+        Map<String, Object> semValor = KeysetCursor.after("professor", "asc", null, 9)
+                .parameters(new Parameters(), KeysetQuery.SortKey.nullable("professor.id").parameter())
+                .map();
+        assertEquals(Map.of("cursorId", 9L), semValor);
+        assertNull(semValor.get("cursorValue"));
+    }
+
+    @Test
+    void cursorDeOutraOrdenacaoEhRecusado() {
+        Map<String, KeysetQuery.SortKey> sorts = Map.of("id", KeysetQuery.SortKey.of("id"));
+        String token = KeysetCursor.after("email", "asc", "ana@gmail.com", 1).encode();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> KeysetQuery.of(sorts, "id", "asc", token));
+        assertEquals("Cursor inválido", e.getMessage());
+
+        KeysetQuery query = KeysetQuery.of(sorts, "id", "desc", KeysetCursor.after("id", "asc", 5L, 5).encode());
+        assertEquals("asc", query.direction);
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package org.acme;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Percorrer uma busca por cursor, para frente e de volta, devolve as mesmas linhas na mesma ordem que a
+ * paginação por offset, inclusive com valores repetidos e nulos no campo de ordenação.
+ */
+@QuarkusTest
+class KeysetPaginacaoTest {
+
+    @Test
+    void ordenacaoPorEnumComValoresRepetidos() {
+        for (String direction : new String[]{"asc", "desc"}) {
+            assertCursorIgualAoOffset("/alunos/search", "alunos", "sexo", direction);
+        }
+    }
+
+    @Test
+    void ordenacaoPorColunaComNulos() {
+        for (int i = 0; i < 3; i++) {
+            given().contentType(ContentType.JSON)
+                    .body(Map.of("nome", "Disciplina Sem Professor " + i, "descricao", "Ainda sem professor", "cargaHoraria", 60))
+                    .when().post("/disciplinas")
+                    .then().statusCode(201);
+        }
+        for (String direction : new String[]{"asc", "desc"}) {
+            assertCursorIgualAoOffset("/disciplinas/search", "disciplinas", "professor", direction);
+        }
+    }
+
+    private static void assertCursorIgualAoOffset(String path, String items, String sort, String direction) {
+        List<Long> esperado = given()
+                .queryParam("sort", sort).queryParam("direction", direction).queryParam("size", 1000)
+                .when().get(path)
+                .then().statusCode(200)
+                .extract().jsonPath().getList(items + ".id", Long.class);
+
+        List<Long> frente = new ArrayList<>();
+        String url = given()
+                .queryParam("sort", sort).queryParam("direction", direction).queryParam("size", 2).queryParam("cursor", "")
+                .when().get(path)
+                .then().statusCode(200)
+                .extract().jsonPath().getString("_links.self");
+        String ultima = null;
+        while (url != null) {
+            JsonPath page = given().when().get(url).then().statusCode(200).extract().jsonPath();
+            frente.addAll(page.getList(items + ".id", Long.class));
+            ultima = url;
+            url = page.getString("_links.next");
+        }
+        assertEquals(esperado, frente, path + " " + sort + " " + direction + " para frente");
+
+        // Da última página até a primeira seguindo prev
+        List<List<Long>> paginas = new ArrayList<>();
+        url = ultima;
+        while (url != null) {
+            JsonPath page = given().when().get(url).then().statusCode(200).extract().jsonPath();
+            paginas.add(page.getList(items + ".id", Long.class));
+            url = page.getString("_links.prev");
+        }
+        Collections.reverse(paginas);
+        assertEquals(esperado, paginas.stream().flatMap(List::stream).toList(), path + " " + sort + " " + direction + " de volta");
+    }
+}
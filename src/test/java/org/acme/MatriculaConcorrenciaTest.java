@@ -0,0 +1,128 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.endsWith;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Matrícula direta em {@code aluno_curso}: não carrega as coleções das entidades e, com requisições simultâneas do
+ * mesmo par aluno/curso, só uma grava e as demais recebem 409.
+ */
+@QuarkusTest
+class MatriculaConcorrenciaTest {
+
+    private static final int REQUISICOES = 16;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void matriculaNaoCarregaAsColecoes() {
+        long cursoId = 1;
+        long alunoId = novoAluno("colecoes");
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        given().when().post("/cursos/" + cursoId + "/alunos/" + alunoId)
+                .then().statusCode(200)
+                .body("alunoId", is((int) alunoId))
+                .body("cursoId", is((int) cursoId))
+                .body("_links.alunosDoCurso", endsWith("/cursos/" + cursoId + "/alunos"));
+        assertEquals(0, statistics.getCollectionFetchCount());
+
+        long outroCurso = 2;
+        statistics.clear();
+        given().when().post("/alunos/" + alunoId + "/cursos/" + outroCurso)
+                .then().statusCode(200)
+                .body("cursoId", is((int) outroCurso));
+        assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    @Test
+    void matriculasParalelasDoMesmoParGravamUmaLinha() throws Exception {
+        long cursoId = 1;
+        long alunoId = novoAluno("concorrente");
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUISICOES);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> respostas = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUISICOES; i++) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return given().when().post("/cursos/" + cursoId + "/alunos/" + alunoId).then().extract().statusCode();
+                }));
+            }
+            largada.countDown();
+
+            int sucessos = 0;
+            int conflitos = 0;
+            for (Future<Integer> resposta : respostas) {
+                int status = resposta.get();
+                if (status == 200) {
+                    sucessos++;
+                } else if (status == 409) {
+                    conflitos++;
+                }
+            }
+            assertEquals(1, sucessos);
+            assertEquals(REQUISICOES - 1, conflitos);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long linhas = QuarkusTransaction.requiringNew().call(() -> ((Number) em
+                .createNativeQuery("select count(*) from aluno_curso where aluno_id = ? and curso_id = ?")
+                .setParameter(1, alunoId)
+                .setParameter(2, cursoId)
+                .getSingleResult()).longValue());
+        assertEquals(1, linhas);
+    }
+
+    @Test
+    void desmatriculaFeitaForaDaAplicacaoNaoImpedeNovaMatricula() {
+        long cursoId = 1;
+        long alunoId = novoAluno("fora-da-aplicacao");
+        given().when().post("/cursos/" + cursoId + "/alunos/" + alunoId).then().statusCode(200);
+
+        // Como outra instância ou uma carga direta no banco: o índice em memória deste processo não fica sabendo
+        QuarkusTransaction.requiringNew().run(() -> em
+                .createNativeQuery("delete from aluno_curso where aluno_id = ? and curso_id = ?")
+                .setParameter(1, alunoId)
+                .setParameter(2, cursoId)
+                .executeUpdate());
+
+        given().when().post("/cursos/" + cursoId + "/alunos/" + alunoId).then().statusCode(200);
+        given().when().post("/cursos/" + cursoId + "/alunos/" + alunoId).then().statusCode(409);
+    }
+
+    private static long novoAluno(String prefixo) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("nome", "Aluno Concorrente", "email", prefixo + "." + System.nanoTime() + "@teste.com", "sexo", "FEMININO"))
+                .when().post("/alunos")
+                .then().statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+}
@@ -0,0 +1,148 @@
+package org.acme;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@code POST /cursos/{id}/alunos} com blocos de dois alunos, para que cada lote passe por vários blocos.
+ */
+@QuarkusTest
+@TestProfile(MatriculaEmLoteTest.BlocosPequenos.class)
+class MatriculaEmLoteTest {
+
+    public static class BlocosPequenos implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("matricula.lote.chunk-size", "2");
+        }
+    }
+
+    private static final long CURSO_ID = 1;
+
+    @Inject
+    EntityManager em;
+
+    @Test
+    void informaPorIdOResultadoDaMatricula() {
+        long novo1 = novoAluno();
+        long novo2 = novoAluno();
+        long jaMatriculado = novoAluno();
+        long inexistente = 999_999_999L;
+        given().when().post("/cursos/" + CURSO_ID + "/alunos/" + jaMatriculado).then().statusCode(200);
+
+        MatriculaLoteResponse response = lote(Arrays.asList(novo1, jaMatriculado, inexistente, novo1, null, novo2));
+
+        assertEquals(CURSO_ID, response.cursoId);
+        assertEquals(List.of(novo1, novo2), response.matriculados);
+        assertEquals(List.of(jaMatriculado), response.jaMatriculados);
+        assertEquals(List.of(inexistente), response.naoEncontrados);
+        assertEquals(1, matriculas(novo1));
+        assertEquals(1, matriculas(novo2));
+        assertEquals(1, matriculas(jaMatriculado));
+
+        // Repetir o lote não grava nada de novo
+        MatriculaLoteResponse repetido = lote(List.of(novo1, novo2));
+        assertEquals(List.of(), repetido.matriculados);
+        assertEquals(List.of(novo1, novo2), repetido.jaMatriculados);
+    }
+
+    /**
+     * Lotes iguais ao mesmo tempo disputam os mesmos pares: o bloco que perde para o índice da chave primária é
+     * refeito e passa a ver as matrículas da outra requisição.
+     */
+    @Test
+    void lotesSimultaneosRefazemOBlocoEmConflito() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(novoAluno());
+        }
+        long totalAntes = total();
+
+        int requisicoes = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requisicoes);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<MatriculaLoteResponse>> respostas = new ArrayList<>();
+        try {
+            for (int i = 0; i < requisicoes; i++) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return lote(ids);
+                }));
+            }
+            largada.countDown();
+
+            List<Long> matriculados = new ArrayList<>();
+            for (Future<MatriculaLoteResponse> resposta : respostas) {
+                MatriculaLoteResponse response = resposta.get();
+                matriculados.addAll(response.matriculados);
+                Set<Long> informados = new HashSet<>(response.matriculados);
+                informados.addAll(response.jaMatriculados);
+                assertEquals(new HashSet<>(ids), informados);
+                assertTrue(response.naoEncontrados.isEmpty());
+            }
+            // Cada aluno aparece como matriculado em exatamente uma resposta
+            assertEquals(ids.size(), matriculados.size());
+            assertEquals(new HashSet<>(ids), new HashSet<>(matriculados));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (long id : ids) {
+            assertEquals(1, matriculas(id));
+        }
+        assertEquals(totalAntes + ids.size(), total());
+    }
+
+    private static MatriculaLoteResponse lote(List<Long> ids) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(ids)
+                .when().post("/cursos/" + CURSO_ID + "/alunos")
+                .then().statusCode(200)
+                .extract().as(MatriculaLoteResponse.class);
+    }
+
+    private static long novoAluno() {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("nome", "Aluno Lote", "email", "lote." + System.nanoTime() + "@teste.com", "sexo", "MASCULINO"))
+                .when().post("/alunos")
+                .then().statusCode(201)
+                .extract().jsonPath().getLong("id");
+    }
+
+    private static long total() {
+        return given().when().get("/cursos/" + CURSO_ID + "/stats")
+                .then().statusCode(200)
+                .extract().jsonPath().getLong("total");
+    }
+
+    private long matriculas(long alunoId) {
+        return QuarkusTransaction.requiringNew().call(() -> ((Number) em
+                .createNativeQuery("select count(*) from aluno_curso where aluno_id = ? and curso_id = ?")
+                .setParameter(1, alunoId)
+                .setParameter(2, CURSO_ID)
+                .getSingleResult()).longValue());
+    }
+}
@@ -0,0 +1,88 @@
+package org.acme;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * O índice de trigramas devolve exatamente os ids que um {@code lower(campo) like '%q%'} devolveria.
+ */
+class TrigramIndexTest {
+
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Mendes", "Rocha", "Oliveira"};
+
+    @Test
+    void mesmosIdsQueOLike() {
+        TrigramIndex index = new TrigramIndex();
+        Map<Long, String[]> documentos = new TreeMap<>();
+        for (long id = 1; id <= 2000; id++) {
+            String sobrenome = SOBRENOMES[(int) (id % SOBRENOMES.length)];
+            String[] campos = {(id % 7 == 0 ? "Ana Clara " : "Aluno " + id + " ") + sobrenome,
+                    "aluno" + id + "@" + sobrenome.toLowerCase(Locale.ROOT) + ".com"};
+            documentos.put(id, campos);
+            index.put(id, campos);
+        }
+
+        for (String termo : new String[]{"silva", "ANA C", "ana.c", "mendes.com", "o 1", "rocha@", "xyz", "19@"}) {
+            assertEquals(like(documentos, termo), index.search(termo, Integer.MAX_VALUE), termo);
+        }
+    }
+
+    @Test
+    void trigramasNaoAtravessamCampos() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Ana", "bcd@gmail.com");
+        // "nab" só existiria juntando o fim do nome com o começo do email
+        assertEquals(List.of(), index.search("nab", 10));
+        assertEquals(List.of(1L), index.search("ana", 10));
+    }
+
+    @Test
+    void alteracaoERemocaoAtualizamAsListas() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Ana Silva", "ana@gmail.com");
+        index.put(2, "Bruno Silva", "bruno@gmail.com");
+
+        index.put(1, "Ana Souza", "ana@gmail.com");
+        assertEquals(List.of(2L), index.search("silva", 10));
+        assertEquals(List.of(1L), index.search("souza", 10));
+
+        index.remove(2);
+        assertEquals(List.of(), index.search("silva", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void semCandidatosResolviveisDevolveNull() {
+        TrigramIndex index = new TrigramIndex();
+        for (long id = 1; id <= 20; id++) {
+            index.put(id, "Aluno " + id, "aluno" + id + "@gmail.com");
+        }
+        // Curto demais para ter trigramas
+        assertNull(index.search("an", 100));
+        // O trigrama mais raro de "gmail" aparece nos 20 registros
+        assertNull(index.search("gmail", 19));
+        assertEquals(20, index.search("gmail", 20).size());
+    }
+
+    private static List<Long> like(Map<Long, String[]> documentos, String termo) {
+        String needle = termo.toLowerCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        documentos.forEach((id, campos) -> {
+            for (String campo : campos) {
+                if (campo.toLowerCase(Locale.ROOT).contains(needle)) {
+                    ids.add(id);
+                    return;
+                }
+            }
+        });
+        return ids;
+    }
+}